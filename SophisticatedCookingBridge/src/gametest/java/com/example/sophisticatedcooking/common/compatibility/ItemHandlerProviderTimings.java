@@ -0,0 +1,55 @@
+package com.example.sophisticatedcooking.common.compatibility;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.gametest.EntryPointTimer;
+import com.example.sophisticatedcooking.gametest.LoadTestContent;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTestGenerator;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.gametest.framework.TestFunction;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.gametest.GameTestHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 注册给 CFB 的物品处理器提供函数对真实方块实体的耗时与分配
+ * 与 SophisticatedStorageCompat 同包，直接取生产中注册的同一个函数；用 -Pbenchmarks=true 启用。
+ */
+@GameTestHolder(SophisticatedCookingBridge.MOD_ID)
+public class ItemHandlerProviderTimings {
+    private static final String TEMPLATE = SophisticatedCookingBridge.MOD_ID + ":load_area";
+    private static final String NAME = "entry_points_provider";
+
+    @GameTestGenerator
+    public static List<TestFunction> provider() {
+        List<TestFunction> tests = new ArrayList<>();
+        if (EntryPointTimer.isEnabled()) {
+            tests.add(new TestFunction(NAME, NAME, TEMPLATE, 100, 0L, true, ItemHandlerProviderTimings::run));
+        }
+        return tests;
+    }
+
+    private static void run(GameTestHelper helper) {
+        BlockPos storagePos = new BlockPos(1, 1, 1);
+        BlockPos chestPos = new BlockPos(3, 1, 1);
+        helper.setBlock(storagePos, LoadTestContent.STORAGE_BLOCK);
+        helper.setBlock(chestPos, Blocks.CHEST);
+        Function<BlockEntity, Object> provider = SophisticatedStorageCompat.createItemHandlerProvider();
+
+        helper.runAfterDelay(1, () -> {
+            BlockEntity storage = helper.getBlockEntity(storagePos);
+            BlockEntity chest = helper.getBlockEntity(chestPos);
+            if (provider.apply(storage) == null) {
+                helper.fail("Provider returned no handler for the stand-in storage container", storagePos);
+            }
+
+            EntryPointTimer.time("provider, storage container", () -> provider.apply(storage));
+            EntryPointTimer.time("provider, vanilla chest", () -> provider.apply(chest));
+            helper.succeed();
+        });
+    }
+}
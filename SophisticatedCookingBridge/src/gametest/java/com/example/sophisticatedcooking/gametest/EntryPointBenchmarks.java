@@ -0,0 +1,64 @@
+package com.example.sophisticatedcooking.gametest;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.discovery.DiscoveryMode;
+import com.example.sophisticatedcooking.integration.SophisticatedStorageInventoryProvider;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTestGenerator;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.gametest.framework.TestFunction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraftforge.gametest.GameTestHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 容器发现与缓存查询等生产入口在真实服务端世界中的耗时与分配，与 JMH 中替身世界的结果互相对照
+ * 每种容器密度一个测试（各自一个批次，不与其他测试并发），覆盖全部发现方式与搜索范围。
+ * CFB 不在测试类路径上，厨房判断只在 JMH 中以替身检查函数测量缓存本身（KitchenMembershipCacheBenchmark）。
+ * 默认不生成任何测试；用 ./gradlew runGameTestServer -Pbenchmarks=true 启用。
+ */
+@GameTestHolder(SophisticatedCookingBridge.MOD_ID)
+public class EntryPointBenchmarks {
+    private static final String TEMPLATE = SophisticatedCookingBridge.MOD_ID + ":load_area";
+    private static final int[] DENSITIES = {64, 512, 2048};
+    private static final int[] RANGES = {8, 16, 32, 64};
+    private static final int MAX_CONTAINERS = Integer.MAX_VALUE;
+    private static final BlockPos ORIGIN = new BlockPos(24, 16, 24);
+    private static final int TIMEOUT_TICKS = 100;
+
+    @GameTestGenerator
+    public static List<TestFunction> entryPoints() {
+        List<TestFunction> tests = new ArrayList<>();
+        if (!EntryPointTimer.isEnabled()) {
+            return tests;
+        }
+
+        for (int containers : DENSITIES) {
+            String name = "entry_points_" + containers;
+            tests.add(new TestFunction(name, name, TEMPLATE, TIMEOUT_TICKS, 0L, true, helper -> run(helper, containers)));
+        }
+        return tests;
+    }
+
+    private static void run(GameTestHelper helper, int containers) {
+        KitchenLoadTests.placeContainers(helper, containers);
+        ServerLevel level = helper.getLevel();
+        BlockPos origin = helper.absolutePos(ORIGIN);
+
+        // 放置后等一 tick，索引与缓存在同一 tick 的方块事件中更新完毕
+        helper.runAfterDelay(1, () -> {
+            for (int range : RANGES) {
+                for (DiscoveryMode mode : DiscoveryMode.values()) {
+                    EntryPointTimer.time(String.format(Locale.ROOT, "discover %s, range %d, %d containers", mode, range, containers),
+                            () -> SophisticatedStorageInventoryProvider.getNearbyItemHandlers(level, origin, range, mode));
+                }
+                EntryPointTimer.time(String.format(Locale.ROOT, "cached getNearbyItemHandlers, range %d, %d containers", range, containers),
+                        () -> SophisticatedStorageInventoryProvider.getNearbyItemHandlers(level, origin, range));
+            }
+            helper.succeed();
+        });
+    }
+}
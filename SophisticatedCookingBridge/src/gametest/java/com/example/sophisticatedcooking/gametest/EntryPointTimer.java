@@ -0,0 +1,58 @@
+package com.example.sophisticatedcooking.gametest;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * 在 GameTest 服务端中对需要存活 Level 的入口计时，作为 JMH 替身世界结果的对照
+ * 每个入口先预热，再至少执行 MIN_ITERATIONS 次且累计超过 TARGET_NANOS，输出每次调用的平均耗时与分配字节数。
+ * 只输出日志，不设预算；用 -Pbenchmarks=true 运行 runGameTestServer 时启用。
+ */
+public final class EntryPointTimer {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MIN_ITERATIONS = 5;
+    private static final int MAX_ITERATIONS = 100_000;
+    private static final long TARGET_NANOS = 100_000_000L;
+
+    private EntryPointTimer() {
+    }
+
+    /**
+     * 是否启用入口计时（系统属性 sophisticatedcooking.benchmarks）
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("sophisticatedcooking.benchmarks");
+    }
+
+    /**
+     * 计时并写入日志；返回每次调用的平均纳秒数
+     */
+    public static double time(String entryPoint, Runnable operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+
+        long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        int iterations = 0;
+        do {
+            operation.run();
+            iterations++;
+            elapsed = System.nanoTime() - start;
+        } while (iterations < MAX_ITERATIONS && (iterations < MIN_ITERATIONS || elapsed < TARGET_NANOS));
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+
+        double nanosPerOp = (double) elapsed / iterations;
+        LOGGER.info("[入口计时] {}", String.format(Locale.ROOT, "%s: %d ops, %.1f ns/op, %.1f B/op",
+                entryPoint, iterations, nanosPerOp, (double) bytes / iterations));
+        return nanosPerOp;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.sophisticatedcooking.gametest;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.inventory.AggregatedItemHandler;
+import com.example.sophisticatedcooking.common.inventory.ExtractionPlanner;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import net.minecraftforge.items.ItemStackHandler;
+
+import java.util.List;
+
+/**
+ * 堆叠升级后的槽位（数量超过物品最大堆叠数）上的按物品提取与批量制作提取
+ * ItemStackHandler.extractItem 每次最多取一组，与 Sophisticated Storage 的堆叠升级槽位行为一致。
+ */
+@GameTestHolder(SophisticatedCookingBridge.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class ExtractionTests {
+    private static final String TEMPLATE = "load_area";
+    private static final int SLOT_LIMIT = 1024;
+
+    @GameTest(template = TEMPLATE)
+    public static void extractBeyondMaxStackSize(GameTestHelper helper) {
+        AggregatedItemHandler inventory = new AggregatedItemHandler(List.of(upgraded(new ItemStack(Items.EGG, 256))));
+        ItemStack template = new ItemStack(Items.EGG);
+
+        ItemStack simulated = inventory.extract(template, 200, true);
+        helper.assertTrue(simulated.getCount() == 200, "simulated extraction returned " + simulated.getCount() + " of 200 eggs");
+        helper.assertTrue(inventory.getCount(template) == 256, "simulated extraction changed the stored amount");
+
+        ItemStack extracted = inventory.extract(template, 200, false);
+        helper.assertTrue(extracted.getCount() == 200, "extraction returned " + extracted.getCount() + " of 200 eggs");
+        helper.assertTrue(inventory.getCount(template) == 56, "expected 56 eggs left, found " + inventory.getCount(template));
+        helper.succeed();
+    }
+
+    @GameTest(template = TEMPLATE)
+    public static void bulkCraftFromUpgradedSlots(GameTestHelper helper) {
+        AggregatedItemHandler inventory = new AggregatedItemHandler(List.of(
+                upgraded(new ItemStack(Items.EGG, 256)),
+                upgraded(new ItemStack(Items.SUGAR, 128))));
+
+        List<ItemStack> stacks = ExtractionPlanner.extractAll(inventory,
+                List.of(Ingredient.of(Items.EGG), Ingredient.of(Items.SUGAR)), 100);
+        helper.assertTrue(stacks != null, "bulk extraction of 100 eggs and 100 sugar failed");
+
+        int eggs = 0;
+        int sugar = 0;
+        for (ItemStack stack : stacks) {
+            helper.assertTrue(stack.getCount() <= stack.getMaxStackSize(), "extracted stack exceeds max stack size: " + stack);
+            if (stack.is(Items.EGG)) eggs += stack.getCount();
+            if (stack.is(Items.SUGAR)) sugar += stack.getCount();
+        }
+        helper.assertTrue(eggs == 100 && sugar == 100, "extracted " + eggs + " eggs and " + sugar + " sugar, expected 100 each");
+        helper.assertTrue(inventory.getCount(new ItemStack(Items.EGG)) == 156, "eggs left in storage do not match");
+        helper.assertTrue(inventory.getCount(new ItemStack(Items.SUGAR)) == 28, "sugar left in storage does not match");
+        helper.succeed();
+    }
+
+    /**
+     * 单槽位、上限为 SLOT_LIMIT 的处理器；setStackInSlot 不检查最大堆叠数
+     */
+    private static ItemStackHandler upgraded(ItemStack contents) {
+        ItemStackHandler handler = new ItemStackHandler(1) {
+            @Override
+            public int getSlotLimit(int slot) {
+                return SLOT_LIMIT;
+            }
+
+            @Override
+            protected int getStackLimit(int slot, ItemStack stack) {
+                return SLOT_LIMIT;
+            }
+        };
+        handler.setStackInSlot(0, contents);
+        return handler;
+    }
+}
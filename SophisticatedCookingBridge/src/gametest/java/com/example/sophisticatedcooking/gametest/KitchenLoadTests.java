@@ -0,0 +1,352 @@
+package com.example.sophisticatedcooking.gametest;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.inventory.ItemCountAggregator;
+import com.example.sophisticatedcooking.integration.SophisticatedStorageInventoryProvider;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * 数百到数千个替身存储容器围绕几个相邻厨房的负载测试
+ * 每个测试先在不调用桥接的情况下测量基线：服务端完整 tick 耗时（MinecraftServer.tickTimes），容器照常被修改；
+ * 预热后每 tick 执行一次工作负载，再测量同样的服务端 tick 耗时与桥接调用本身的耗时。
+ * 平均 tick 耗时超过基线的 maxSlowdown 倍、或 p99 超过基线 p99 的 maxP99Slowdown 倍时失败：基线与负载在同一次运行、同一台机器上测得，
+ * 上限只用于发现数量级的退化（例如每 tick 重新扫描全部容器），不代表性能目标。
+ * 固定的微秒预算只在 -PenforceBudgets=true 时检查，适合在固定的基准机器上比较；数值需随测量结果更新。
+ * 厨房只是搜索原点：CFB 不在测试类路径上，食谱书刷新与制作直接调用 SophisticatedStorageInventoryProvider 的同名路径。
+ */
+@GameTestHolder(SophisticatedCookingBridge.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class KitchenLoadTests {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final boolean ENFORCE_BUDGETS = Boolean.getBoolean("sophisticatedcooking.enforceBudgets");
+
+    // 48x33x48 的空结构，足够容纳 5 个搜索范围相互重叠的厨房
+    private static final String TEMPLATE = "load_area";
+    private static final int SIZE_XZ = 48;
+    private static final int SIZE_Y = 33;
+    private static final int RANGE = 16;
+    // 放置容器之后等待区块与方块实体稳定的 tick 数，不计入任何样本
+    private static final int SETTLE_TICKS = 20;
+    private static final int BASELINE_TICKS = 100;
+    private static final int WARMUP_TICKS = 40;
+    private static final int MEASURED_TICKS = 200;
+    private static final int BASELINE_END = SETTLE_TICKS + BASELINE_TICKS;
+    private static final int MEASURE_START = BASELINE_END + WARMUP_TICKS;
+    private static final int MEASURE_END = MEASURE_START + MEASURED_TICKS;
+    private static final int TIMEOUT_TICKS = MEASURE_END + 100;
+    // 每隔多少 tick 拆除并重新放置一个容器，触发索引变化与缓存失效
+    private static final int CHURN_INTERVAL = 20;
+
+    private static final List<BlockPos> KITCHENS = List.of(
+            new BlockPos(24, 16, 24),
+            new BlockPos(16, 16, 24),
+            new BlockPos(32, 16, 24),
+            new BlockPos(24, 16, 16),
+            new BlockPos(24, 16, 32));
+
+    private static final Item[] STOCK = {
+            Items.WHEAT, Items.POTATO, Items.CARROT, Items.BEETROOT, Items.SUGAR, Items.EGG, Items.COCOA_BEANS,
+            Items.PUMPKIN, Items.BROWN_MUSHROOM, Items.RED_MUSHROOM, Items.BOWL, Items.APPLE, Items.GOLD_NUGGET,
+            Items.BEEF, Items.PORKCHOP, Items.CHICKEN, Items.COD, Items.SALMON, Items.COBBLESTONE, Items.OAK_PLANKS};
+
+    @GameTest(template = TEMPLATE, batch = "load_refresh_256", timeoutTicks = TIMEOUT_TICKS)
+    public static void recipeBookRefresh256(GameTestHelper helper) {
+        recipeBookRefresh(helper, 256, new Limits(4.0, 8.0, 250.0, 1500.0));
+    }
+
+    @GameTest(template = TEMPLATE, batch = "load_refresh_1024", timeoutTicks = TIMEOUT_TICKS)
+    public static void recipeBookRefresh1024(GameTestHelper helper) {
+        recipeBookRefresh(helper, 1024, new Limits(6.0, 12.0, 500.0, 3000.0));
+    }
+
+    @GameTest(template = TEMPLATE, batch = "load_refresh_4096", timeoutTicks = TIMEOUT_TICKS)
+    public static void recipeBookRefresh4096(GameTestHelper helper) {
+        recipeBookRefresh(helper, 4096, new Limits(10.0, 20.0, 1000.0, 6000.0));
+    }
+
+    @GameTest(template = TEMPLATE, batch = "load_craft_1024", timeoutTicks = TIMEOUT_TICKS)
+    public static void craft1024(GameTestHelper helper) {
+        craft(helper, 1024, new Limits(6.0, 12.0, 400.0, 2000.0));
+    }
+
+    @GameTest(template = TEMPLATE, batch = "load_aggregate_1024", timeoutTicks = TIMEOUT_TICKS)
+    public static void stockAggregation1024(GameTestHelper helper) {
+        stockAggregation(helper, 1024, new Limits(5.0, 10.0, 300.0, 1500.0));
+    }
+
+    /**
+     * 库存汇总：每 tick 修改一个容器的一个槽位，然后每个厨房用自己长期持有的 ItemCountAggregator 重新汇总物品数量
+     */
+    private static void stockAggregation(GameTestHelper helper, int containers, Limits limits) {
+        List<BlockPos> placed = placeContainers(helper, containers);
+        ServerLevel level = helper.getLevel();
+        Random random = new Random(containers);
+        List<ItemCountAggregator> aggregators = new ArrayList<>();
+        for (int i = 0; i < KITCHENS.size(); i++) {
+            aggregators.add(new ItemCountAggregator());
+        }
+
+        measure(helper, "stock aggregation, " + containers + " containers", limits,
+                tick -> inventoryAt(helper, placed.get(tick % placed.size())).setStackInSlot(StandInStorageBlockEntity.SLOTS - 1,
+                        new ItemStack(STOCK[random.nextInt(STOCK.length)], 1 + random.nextInt(64))),
+                tick -> {
+                    for (int i = 0; i < KITCHENS.size(); i++) {
+                        SophisticatedStorageInventoryProvider.aggregateItemCounts(
+                                level, helper.absolutePos(KITCHENS.get(i)), RANGE, aggregators.get(i));
+                    }
+                    if (aggregators.get(0).getCount(new ItemStack(Items.WHEAT)) <= 0) {
+                        helper.fail("Kitchen aggregated no wheat", KITCHENS.get(0));
+                    }
+                });
+    }
+
+    /**
+     * 食谱书刷新：每 tick 修改一个容器的一个槽位，定期拆装容器，然后为每个厨房取聚合库存与可制作配方位集
+     */
+    private static void recipeBookRefresh(GameTestHelper helper, int containers, Limits limits) {
+        List<BlockPos> placed = placeContainers(helper, containers);
+        ServerLevel level = helper.getLevel();
+        Random random = new Random(containers);
+
+        measure(helper, "recipe book refresh, " + containers + " containers", limits,
+                tick -> {
+                    inventoryAt(helper, placed.get(tick % placed.size())).setStackInSlot(StandInStorageBlockEntity.SLOTS - 1,
+                            new ItemStack(STOCK[random.nextInt(STOCK.length)], 1 + random.nextInt(64)));
+                    if (tick % CHURN_INTERVAL == 0) {
+                        churn(helper, placed.get(random.nextInt(placed.size())), random);
+                    }
+                },
+                tick -> {
+                    for (BlockPos kitchen : KITCHENS) {
+                        BlockPos origin = helper.absolutePos(kitchen);
+                        SophisticatedStorageInventoryProvider.getKitchenInventory(level, origin, RANGE);
+                        SophisticatedStorageInventoryProvider.getCraftableRecipes(level, origin, RANGE);
+                    }
+                    if (tick == BASELINE_END) {
+                        assertKitchensFindContainers(helper);
+                    }
+                });
+    }
+
+    /**
+     * 制作：每 tick 每个厨房提取一份面包的材料并刷新可制作配方，材料在下一 tick 放回随机容器以保持库存稳定
+     */
+    private static void craft(GameTestHelper helper, int containers, Limits limits) {
+        List<BlockPos> placed = placeContainers(helper, containers);
+        ServerLevel level = helper.getLevel();
+        List<Ingredient> ingredients = ingredientsOf(helper, new ResourceLocation("bread"));
+        Random random = new Random(containers);
+        List<ItemStack> extracted = new ArrayList<>();
+
+        measure(helper, "craft, " + containers + " containers", limits,
+                tick -> {
+                    for (ItemStack stack : extracted) {
+                        ItemHandlerHelper.insertItemStacked(inventoryAt(helper, placed.get(random.nextInt(placed.size()))), stack, false);
+                    }
+                    extracted.clear();
+                },
+                tick -> {
+                    for (BlockPos kitchen : KITCHENS) {
+                        BlockPos origin = helper.absolutePos(kitchen);
+                        List<ItemStack> stacks = SophisticatedStorageInventoryProvider.extractIngredients(level, origin, RANGE, ingredients, 1);
+                        SophisticatedStorageInventoryProvider.getCraftableRecipes(level, origin, RANGE);
+                        if (stacks != null) {
+                            extracted.addAll(stacks);
+                        }
+                    }
+                    if (extracted.isEmpty()) {
+                        helper.fail("No kitchen could extract the ingredients of minecraft:bread");
+                    }
+                });
+    }
+
+    /**
+     * 按 稳定 → 基线 → 预热 → 测量 的阶段运行测试：mutate 每 tick 都执行，query（桥接调用）从预热开始执行
+     * 每 tick 记录上一个 tick 的服务端耗时并归入上一个 tick 所在的阶段。
+     */
+    private static void measure(GameTestHelper helper, String workload, Limits limits, IntConsumer mutate, IntConsumer query) {
+        MinecraftServer server = helper.getLevel().getServer();
+        TickSamples baseline = new TickSamples(BASELINE_TICKS);
+        TickSamples loaded = new TickSamples(MEASURED_TICKS);
+        TickSamples bridge = new TickSamples(MEASURED_TICKS);
+        int[] tick = {0};
+
+        helper.onEachTick(() -> {
+            int current = tick[0]++;
+            int previous = current - 1;
+            if (previous >= SETTLE_TICKS && previous < BASELINE_END) {
+                baseline.add(TickSamples.lastServerTickNanos(server));
+            } else if (previous >= MEASURE_START && previous < MEASURE_END) {
+                loaded.add(TickSamples.lastServerTickNanos(server));
+            }
+            if (current >= MEASURE_END) return;
+
+            mutate.accept(current);
+            if (current < BASELINE_END) return;
+
+            long start = System.nanoTime();
+            query.accept(current);
+            long elapsed = System.nanoTime() - start;
+            if (current >= MEASURE_START) {
+                bridge.add(elapsed);
+            }
+        });
+        helper.runAtTickTime(MEASURE_END + 2, () -> {
+            assertWithin(helper, workload, limits, baseline, loaded, bridge);
+            helper.succeed();
+        });
+    }
+
+    /**
+     * 平均 tick 耗时超过基线的 maxSlowdown 倍、或 p99 超过基线 p99 的 maxP99Slowdown 倍时失败；开启 enforceBudgets 时桥接耗时还需在固定预算内
+     * 结果总是写入日志，便于比较不同提交。
+     */
+    private static void assertWithin(GameTestHelper helper, String workload, Limits limits,
+                                     TickSamples baseline, TickSamples loaded, TickSamples bridge) {
+        double baselineMean = baseline.meanMicros();
+        double loadedMean = loaded.meanMicros();
+        double slowdown = baselineMean > 0 ? loadedMean / baselineMean : 0.0;
+        double baselineP99 = baseline.percentileMicros(0.99);
+        double loadedP99 = loaded.percentileMicros(0.99);
+        double p99Slowdown = baselineP99 > 0 ? loadedP99 / baselineP99 : 0.0;
+        String summary = String.format(Locale.ROOT,
+                "%s: server tick mean=%.1fus (baseline %.1fus, x%.2f, limit x%.1f), p99=%.1fus (baseline %.1fus, x%.2f, limit x%.1f); "
+                        + "bridge mean=%.1fus (budget %.0fus), p99=%.1fus (budget %.0fus), max=%.1fus",
+                workload, loadedMean, baselineMean, slowdown, limits.maxSlowdown(), loadedP99,
+                baselineP99, p99Slowdown, limits.maxP99Slowdown(), bridge.meanMicros(), limits.meanBudgetMicros(), bridge.percentileMicros(0.99),
+                limits.p99BudgetMicros(), bridge.percentileMicros(1.0));
+        LOGGER.info("[负载测试] {}", summary);
+
+        if (slowdown > limits.maxSlowdown()) {
+            helper.fail("Server tick slowed down too much: " + summary);
+        }
+        if (p99Slowdown > limits.maxP99Slowdown()) {
+            helper.fail("Server tick p99 slowed down too much: " + summary);
+        }
+        if (ENFORCE_BUDGETS && (bridge.meanMicros() > limits.meanBudgetMicros()
+                || bridge.percentileMicros(0.99) > limits.p99BudgetMicros())) {
+            helper.fail("Bridge time over budget: " + summary);
+        }
+    }
+
+    /**
+     * 在结构内均匀放置 count 个替身容器（跳过厨房位置）并填入食材与杂物；返回相对坐标
+     */
+    static List<BlockPos> placeContainers(GameTestHelper helper, int count) {
+        List<BlockPos> cells = new ArrayList<>();
+        for (int y = 1; y < SIZE_Y - 1; y++) {
+            for (int x = 1; x < SIZE_XZ - 1; x++) {
+                for (int z = 1; z < SIZE_XZ - 1; z++) {
+                    BlockPos pos = new BlockPos(x, y, z);
+                    if (!KITCHENS.contains(pos)) {
+                        cells.add(pos);
+                    }
+                }
+            }
+        }
+
+        Random random = new Random(count);
+        List<BlockPos> placed = new ArrayList<>(count);
+        double stride = (double) cells.size() / count;
+        for (int i = 0; i < count; i++) {
+            BlockPos pos = cells.get((int) (i * stride));
+            helper.setBlock(pos, LoadTestContent.STORAGE_BLOCK);
+            fill(inventoryAt(helper, pos), random);
+            placed.add(pos);
+        }
+        return placed;
+    }
+
+    private static void fill(ItemStackHandler inventory, Random random) {
+        for (int slot = 0; slot < StandInStorageBlockEntity.SLOTS - 1; slot++) {
+            if (random.nextInt(3) == 0) continue;
+
+            ItemStack stack = new ItemStack(STOCK[random.nextInt(STOCK.length)], 1 + random.nextInt(64));
+            // 一部分物品带 NBT，聚合时按物品 + 标签区分
+            if (random.nextInt(8) == 0) {
+                CompoundTag tag = new CompoundTag();
+                tag.putInt("LoadTestVariant", random.nextInt(4));
+                stack.setTag(tag);
+            }
+            inventory.setStackInSlot(slot, stack);
+        }
+    }
+
+    /**
+     * 拆除并重新放置容器，内容重新随机填充
+     */
+    private static void churn(GameTestHelper helper, BlockPos pos, Random random) {
+        helper.setBlock(pos, Blocks.AIR);
+        helper.setBlock(pos, LoadTestContent.STORAGE_BLOCK);
+        fill(inventoryAt(helper, pos), random);
+    }
+
+    private static ItemStackHandler inventoryAt(GameTestHelper helper, BlockPos pos) {
+        if (helper.getBlockEntity(pos) instanceof StandInStorageBlockEntity storage) {
+            return storage.getInventory();
+        }
+        helper.fail("Missing stand-in storage container", pos);
+        throw new IllegalStateException();
+    }
+
+    private static List<Ingredient> ingredientsOf(GameTestHelper helper, ResourceLocation recipeId) {
+        Recipe<?> recipe = helper.getLevel().getRecipeManager().byKey(recipeId).orElse(null);
+        if (recipe == null) {
+            helper.fail("Missing recipe " + recipeId);
+            throw new IllegalStateException();
+        }
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            if (!ingredient.isEmpty()) {
+                ingredients.add(ingredient);
+            }
+        }
+        return ingredients;
+    }
+
+    /**
+     * 替身容器没有被当作存储容器时（例如归类未注册）计时没有意义，直接失败
+     */
+    private static void assertKitchensFindContainers(GameTestHelper helper) {
+        for (BlockPos kitchen : KITCHENS) {
+            List<IItemHandler> handlers = SophisticatedStorageInventoryProvider.getNearbyItemHandlers(
+                    helper.getLevel(), helper.absolutePos(kitchen), RANGE);
+            if (handlers.isEmpty()) {
+                helper.fail("Kitchen found no containers", kitchen);
+            }
+        }
+    }
+
+    /**
+     * maxSlowdown / maxP99Slowdown：负载下服务端 tick 耗时的平均值 / p99 相对基线的倍数上限；
+     * 两个预算：桥接调用的平均值与 p99（微秒，仅 enforceBudgets）
+     */
+    private record Limits(double maxSlowdown, double maxP99Slowdown, double meanBudgetMicros, double p99BudgetMicros) {
+    }
+}
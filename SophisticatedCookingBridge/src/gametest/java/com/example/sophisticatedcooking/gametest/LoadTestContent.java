@@ -0,0 +1,38 @@
+package com.example.sophisticatedcooking.gametest;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.SoundType;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.state.BlockBehaviour;
+import net.minecraft.world.level.material.Material;
+import net.minecraftforge.event.RegistryEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * 负载测试专用的注册内容（只存在于 gametest 源集，不随模组发布）
+ * 替身容器类型由 integration.LoadTestStorageTypes 在 setup 时显式归类为精妙存储，使索引、发现与提供器像对待真实容器一样对待它。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID, bus = Mod.EventBusSubscriber.Bus.MOD)
+public class LoadTestContent {
+    public static final ResourceLocation STORAGE_ID = new ResourceLocation(SophisticatedCookingBridge.MOD_ID, "load_test_storage");
+
+    public static Block STORAGE_BLOCK;
+    public static BlockEntityType<StandInStorageBlockEntity> STORAGE_BLOCK_ENTITY;
+
+    @SubscribeEvent
+    public static void onRegisterBlocks(RegistryEvent.Register<Block> event) {
+        STORAGE_BLOCK = new StandInStorageBlock(BlockBehaviour.Properties.of(Material.WOOD).strength(2.0f).sound(SoundType.WOOD));
+        STORAGE_BLOCK.setRegistryName(STORAGE_ID);
+        event.getRegistry().register(STORAGE_BLOCK);
+    }
+
+    @SubscribeEvent
+    public static void onRegisterBlockEntities(RegistryEvent.Register<BlockEntityType<?>> event) {
+        STORAGE_BLOCK_ENTITY = BlockEntityType.Builder.of(StandInStorageBlockEntity::new, STORAGE_BLOCK).build(null);
+        STORAGE_BLOCK_ENTITY.setRegistryName(STORAGE_ID);
+        event.getRegistry().register(STORAGE_BLOCK_ENTITY);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.sophisticatedcooking.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.EntityBlock;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * 负载测试用的替身存储方块
+ */
+public class StandInStorageBlock extends Block implements EntityBlock {
+    public StandInStorageBlock(Properties properties) {
+        super(properties);
+    }
+
+    @Override
+    public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
+        return new StandInStorageBlockEntity(pos, state);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.sophisticatedcooking.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+
+/**
+ * 精妙存储容器的替身：只通过 ITEM_HANDLER_CAPABILITY 暴露一个普通的物品栏
+ * 没有精妙存储的内容变化通知，桥接按未挂通知的容器低频采样（与无法挂上通知的真实容器相同）。
+ */
+public class StandInStorageBlockEntity extends BlockEntity {
+    public static final int SLOTS = 27;
+
+    private final ItemStackHandler inventory = new ItemStackHandler(SLOTS) {
+        @Override
+        protected void onContentsChanged(int slot) {
+            setChanged();
+        }
+    };
+    private LazyOptional<IItemHandler> inventoryCapability = LazyOptional.of(() -> inventory);
+
+    public StandInStorageBlockEntity(BlockPos pos, BlockState state) {
+        super(LoadTestContent.STORAGE_BLOCK_ENTITY, pos, state);
+    }
+
+    public ItemStackHandler getInventory() {
+        return inventory;
+    }
+
+    @Override
+    public <T> LazyOptional<T> getCapability(Capability<T> capability, Direction side) {
+        if (capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY) {
+            return inventoryCapability.cast();
+        }
+        return super.getCapability(capability, side);
+    }
+
+    @Override
+    public void invalidateCaps() {
+        super.invalidateCaps();
+        inventoryCapability.invalidate();
+    }
+
+    @Override
+    public void reviveCaps() {
+        super.reviveCaps();
+        inventoryCapability = LazyOptional.of(() -> inventory);
+    }
+
+    @Override
+    public void load(CompoundTag tag) {
+        super.load(tag);
+        inventory.deserializeNBT(tag.getCompound("Inventory"));
+    }
+
+    @Override
+    protected void saveAdditional(CompoundTag tag) {
+        super.saveAdditional(tag);
+        tag.put("Inventory", inventory.serializeNBT());
+    }
+}
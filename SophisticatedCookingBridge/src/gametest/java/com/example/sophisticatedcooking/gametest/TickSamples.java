@@ -0,0 +1,55 @@
+package com.example.sophisticatedcooking.gametest;
+
+import net.minecraft.server.MinecraftServer;
+
+import java.util.Arrays;
+
+/**
+ * 每 tick 一个耗时样本及其平均值与分位数
+ */
+final class TickSamples {
+    private final long[] nanos;
+    private int size = 0;
+
+    TickSamples(int capacity) {
+        this.nanos = new long[capacity];
+    }
+
+    void add(long sampleNanos) {
+        if (size < nanos.length) {
+            nanos[size++] = sampleNanos;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    double meanMicros() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += nanos[i];
+        }
+        return size == 0 ? 0.0 : sum / 1000.0 / size;
+    }
+
+    /**
+     * 精确分位数（排序后取第 ceil(q*n) 个样本）
+     */
+    double percentileMicros(double quantile) {
+        if (size == 0) return 0.0;
+
+        long[] sorted = Arrays.copyOf(nanos, size);
+        Arrays.sort(sorted);
+        int index = Math.max(0, (int) Math.ceil(quantile * size) - 1);
+        return sorted[index] / 1000.0;
+    }
+
+    /**
+     * 服务端上一个完整 tick 的耗时（MinecraftServer.tickTimes）；在 tick 内调用，tickCount 已经指向当前 tick
+     */
+    static long lastServerTickNanos(MinecraftServer server) {
+        long[] tickTimes = server.tickTimes;
+        return tickTimes[Math.floorMod(server.getTickCount() - 1, tickTimes.length)];
+    }
+}
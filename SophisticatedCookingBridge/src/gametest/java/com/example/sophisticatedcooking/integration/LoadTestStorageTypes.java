@@ -0,0 +1,19 @@
+package com.example.sophisticatedcooking.integration;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.gametest.LoadTestContent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
+
+/**
+ * 把负载测试的替身容器类型归类为精妙存储（StorageTypeClassifier.register 只对同包开放）
+ * 只存在于 gametest 源集。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID, bus = Mod.EventBusSubscriber.Bus.MOD)
+public class LoadTestStorageTypes {
+    @SubscribeEvent
+    public static void onCommonSetup(FMLCommonSetupEvent event) {
+        StorageTypeClassifier.register(LoadTestContent.STORAGE_BLOCK_ENTITY, StorageTypeClassifier.Kind.STORAGE);
+    }
+}
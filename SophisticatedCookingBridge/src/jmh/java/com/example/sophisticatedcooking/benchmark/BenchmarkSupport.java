@@ -0,0 +1,34 @@
+package com.example.sophisticatedcooking.benchmark;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.example.sophisticatedcooking.common.Config;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+/**
+ * 基准测试公共工具
+ * 需要 Level 的入口通过替身代替：容器发现经 DiscoveryView，厨房判断经 KitchenMembershipCache 的替身检查函数；
+ * 真实世界中的对照计时见 gametest 源集的 EntryPointBenchmarks。
+ */
+public final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 初始化原版注册表，使真实的方块、方块实体类型可以在 JMH 进程中创建
+     */
+    public static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    /**
+     * 在 FML 之外加载一份全部为默认值的内存配置，使 Config 的读取方法可用
+     */
+    public static void loadDefaultConfig() {
+        if (!Config.SPEC.isLoaded()) {
+            Config.SPEC.setConfig(CommentedConfig.inMemory());
+        }
+        Config.ENABLE_DEBUG_LOGGING.set(false);
+    }
+}
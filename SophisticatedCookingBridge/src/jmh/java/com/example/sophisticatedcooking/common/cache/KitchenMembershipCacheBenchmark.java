@@ -0,0 +1,79 @@
+package com.example.sophisticatedcooking.common.cache;
+
+import com.example.sophisticatedcooking.benchmark.BenchmarkSupport;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * isValidKitchen 经过的厨房成员缓存（KitchenMembershipCache）的耗时与分配
+ * CFB 不在基准测试的类路径上：check 与 extent 是替身函数，把 KITCHEN 方框内的坐标视为厨房并返回该方框作为结构范围，
+ * 测得的是缓存本身的开销，不含 CFB 的多方块遍历。
+ * hit：全部命中；invalidateAndMiss：每次先让厨房内一个方块变化（清除整个厨房的结果），再重新查询全部坐标。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class KitchenMembershipCacheBenchmark {
+    private static final BoundingBox KITCHEN = new BoundingBox(0, 64, 0, 7, 65, 7);
+    private static final BiPredicate<Level, BlockPos> CHECK = (level, pos) -> KITCHEN.isInside(pos);
+    private static final BiFunction<Level, BlockPos, BoundingBox> EXTENT =
+            (level, pos) -> KITCHEN.isInside(pos) ? KITCHEN : new BoundingBox(pos);
+    // 厨房内的 16 个方块与厨房外的 16 个相邻位置
+    private static final int QUERIES = 32;
+
+    private final BlockPos[] queries = new BlockPos[QUERIES];
+    private KitchenMembershipCache.Entries entries;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.bootstrap();
+        BenchmarkSupport.loadDefaultConfig();
+
+        for (int i = 0; i < QUERIES / 2; i++) {
+            queries[i] = new BlockPos(i % 8, 64 + i / 8, 3);
+            queries[QUERIES / 2 + i] = new BlockPos(i % 8, 64, 9 + i / 8);
+        }
+        entries = new KitchenMembershipCache.Entries();
+        for (BlockPos pos : queries) {
+            KitchenMembershipCache.isPartOfKitchen(entries, 0L, null, pos, CHECK, EXTENT);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int hit() {
+        int members = 0;
+        for (BlockPos pos : queries) {
+            if (KitchenMembershipCache.isPartOfKitchen(entries, 0L, null, pos, CHECK, EXTENT)) {
+                members++;
+            }
+        }
+        return members;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int invalidateAndMiss() {
+        entries.removeContaining(queries[0]);
+        int members = 0;
+        for (BlockPos pos : queries) {
+            if (KitchenMembershipCache.isPartOfKitchen(entries, 0L, null, pos, CHECK, EXTENT)) {
+                members++;
+            }
+        }
+        return members;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.sophisticatedcooking.common.compatibility;
+
+import com.example.sophisticatedcooking.benchmark.BenchmarkSupport;
+import com.example.sophisticatedcooking.integration.BenchmarkStorageTypes;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.ChestBlockEntity;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 注册给 CFB 的物品处理器提供函数（createItemHandlerProvider）的耗时与分配
+ * 与 SophisticatedStorageCompat 同包，直接取生产中注册的同一个函数。
+ * 存储容器是不在世界中的替身方块实体（level 为 null，不经过容器索引），通过能力暴露一个普通物品栏。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ItemHandlerProviderBenchmark {
+    private Function<BlockEntity, Object> provider;
+    private BlockEntity storage;
+    private BlockEntity chest;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.bootstrap();
+        BenchmarkSupport.loadDefaultConfig();
+
+        LazyOptional<IItemHandler> inventory = LazyOptional.of(() -> new ItemStackHandler(27));
+        storage = new BlockEntity(BenchmarkStorageTypes.storageType(), BlockPos.ZERO, Blocks.BARREL.defaultBlockState()) {
+            @Override
+            public <T> LazyOptional<T> getCapability(Capability<T> capability, Direction side) {
+                if (capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY) {
+                    return inventory.cast();
+                }
+                return super.getCapability(capability, side);
+            }
+        };
+        chest = new ChestBlockEntity(new BlockPos(2, 0, 0), Blocks.CHEST.defaultBlockState());
+        provider = SophisticatedStorageCompat.createItemHandlerProvider();
+
+        if (provider.apply(storage) == null) {
+            throw new IllegalStateException("Provider returned no handler for the stand-in storage container");
+        }
+    }
+
+    @Benchmark
+    public Object storageContainer() {
+        return provider.apply(storage);
+    }
+
+    @Benchmark
+    public Object vanillaChest() {
+        return provider.apply(chest);
+    }
+}
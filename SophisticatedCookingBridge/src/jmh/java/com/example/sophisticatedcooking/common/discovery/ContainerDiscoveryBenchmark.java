@@ -0,0 +1,131 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import com.example.sophisticatedcooking.benchmark.BenchmarkSupport;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容器发现算法（getNearbyItemHandlers 未命中缓存时的扫描）在内存替身世界中的耗时与分配
+ * 通过 DiscoveryView 传入替身视图，与生产代码走同一个 scanCounted；每个容器另有一个非容器方块实体作干扰。
+ * 不包含获取物品处理器与去重（需要真实的能力），真实世界中的完整入口见 gametest 源集的 EntryPointBenchmarks。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ContainerDiscoveryBenchmark {
+    private static final int CENTER_X = 0;
+    private static final int CENTER_Y = 64;
+    private static final int CENTER_Z = 0;
+    // 容器分布在以中心为原点、边长 2*SPREAD+1 的立方体内
+    private static final int SPREAD = 64;
+
+    @Param({"64", "512", "2048"})
+    public int containers;
+
+    @Param({"8", "16", "32", "64"})
+    public int range;
+
+    @Param({"INDEX", "CHUNK", "CUBE", "LEGACY_CUBE"})
+    public DiscoveryMode mode;
+
+    private FakeView view;
+    private StorageContainerIndex index;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.bootstrap();
+
+        view = new FakeView();
+        index = new StorageContainerIndex(Level.OVERWORLD, SectionPos.blockToSectionCoord(view.getMinBuildHeight()),
+                SectionPos.blockToSectionCoord(view.getMaxBuildHeight()));
+        Random random = new Random(containers);
+        int added = 0;
+        for (int i = 0; added < containers; i++) {
+            long packedPos = BlockPos.asLong(CENTER_X + random.nextInt(2 * SPREAD + 1) - SPREAD,
+                    CENTER_Y + random.nextInt(2 * SPREAD + 1) - SPREAD,
+                    CENTER_Z + random.nextInt(2 * SPREAD + 1) - SPREAD);
+            if (view.getBlockEntity(BlockPos.getX(packedPos), BlockPos.getY(packedPos), BlockPos.getZ(packedPos)) != null) {
+                continue;
+            }
+
+            // 容器与非容器交替放置
+            boolean container = (i & 1) == 0;
+            view.put(packedPos, container);
+            if (container) {
+                index.add(packedPos);
+                added++;
+            }
+        }
+    }
+
+    @Benchmark
+    public long discover() {
+        return ContainerDiscovery.scanCounted(view, index, CENTER_X, CENTER_Y, CENTER_Z, range, Integer.MAX_VALUE, mode,
+                blockEntity -> true);
+    }
+
+    private record FakeBlockEntity(long packedPos, boolean container) {
+    }
+
+    /**
+     * 按坐标与区块保存替身方块实体；所有区块都视为已加载
+     */
+    private static final class FakeView implements DiscoveryView<FakeBlockEntity> {
+        private final Long2ObjectOpenHashMap<FakeBlockEntity> byPos = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectOpenHashMap<List<FakeBlockEntity>> byChunk = new Long2ObjectOpenHashMap<>();
+
+        void put(long packedPos, boolean container) {
+            FakeBlockEntity blockEntity = new FakeBlockEntity(packedPos, container);
+            byPos.put(packedPos, blockEntity);
+            byChunk.computeIfAbsent(ChunkPos.asLong(SectionPos.blockToSectionCoord(BlockPos.getX(packedPos)),
+                    SectionPos.blockToSectionCoord(BlockPos.getZ(packedPos))), key -> new ArrayList<>()).add(blockEntity);
+        }
+
+        @Override
+        public int getMinBuildHeight() {
+            return -64;
+        }
+
+        @Override
+        public int getMaxBuildHeight() {
+            return 320;
+        }
+
+        @Override
+        public FakeBlockEntity getBlockEntity(int x, int y, int z) {
+            return byPos.get(BlockPos.asLong(x, y, z));
+        }
+
+        @Override
+        public Collection<FakeBlockEntity> getChunkBlockEntities(int chunkX, int chunkZ, int minY, int maxY) {
+            return byChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+        }
+
+        @Override
+        public long getPackedPos(FakeBlockEntity blockEntity) {
+            return blockEntity.packedPos();
+        }
+
+        @Override
+        public boolean isContainer(FakeBlockEntity blockEntity) {
+            return blockEntity.container();
+        }
+    }
+}
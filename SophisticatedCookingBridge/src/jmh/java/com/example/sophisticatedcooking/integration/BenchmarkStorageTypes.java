@@ -0,0 +1,27 @@
+package com.example.sophisticatedcooking.integration;
+
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+
+/**
+ * 基准测试中精妙存储容器的替身类型：一个未注册的方块实体类型，经测试钩子 StorageTypeClassifier.register 归类为 STORAGE
+ * 精妙存储不在基准测试的类路径上。
+ */
+public final class BenchmarkStorageTypes {
+    private static BlockEntityType<BlockEntity> storageType;
+
+    private BenchmarkStorageTypes() {
+    }
+
+    /**
+     * 替身存储类型；首次调用时创建并登记，需先调用 BenchmarkSupport.bootstrap
+     */
+    public static synchronized BlockEntityType<BlockEntity> storageType() {
+        if (storageType == null) {
+            storageType = BlockEntityType.Builder.<BlockEntity>of((pos, state) -> null, Blocks.BARREL).build(null);
+            StorageTypeClassifier.register(storageType, StorageTypeClassifier.Kind.STORAGE);
+        }
+        return storageType;
+    }
+}
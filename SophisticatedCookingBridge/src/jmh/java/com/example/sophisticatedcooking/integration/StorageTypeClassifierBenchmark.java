@@ -0,0 +1,92 @@
+package com.example.sophisticatedcooking.integration;
+
+import com.example.sophisticatedcooking.benchmark.BenchmarkSupport;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BarrelBlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.entity.ChestBlockEntity;
+import net.minecraft.world.level.block.entity.FurnaceBlockEntity;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * isSophisticatedStorageBlockEntity 对真实方块实体的分类开销
+ * legacy* 复现旧实现（每次查 Forge 注册表 + 比较命名空间 / 扫描类名），classifier 为生产入口。
+ * 存储容器用 BenchmarkStorageTypes 的替身类型代替，其余为原版方块实体。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StorageTypeClassifierBenchmark {
+    private static final int BLOCK_ENTITIES = 64;
+
+    private final BlockEntity[] blockEntities = new BlockEntity[BLOCK_ENTITIES];
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.bootstrap();
+        BenchmarkSupport.loadDefaultConfig();
+
+        BlockEntityType<BlockEntity> storageType = BenchmarkStorageTypes.storageType();
+
+        for (int i = 0; i < BLOCK_ENTITIES; i++) {
+            BlockPos pos = new BlockPos(i, 64, 0);
+            blockEntities[i] = switch (i % 4) {
+                case 0 -> new BlockEntity(storageType, pos, Blocks.BARREL.defaultBlockState());
+                case 1 -> new ChestBlockEntity(pos, Blocks.CHEST.defaultBlockState());
+                case 2 -> new FurnaceBlockEntity(pos, Blocks.FURNACE.defaultBlockState());
+                default -> new BarrelBlockEntity(pos, Blocks.BARREL.defaultBlockState());
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_ENTITIES)
+    public int legacyRegistryLookup() {
+        int storage = 0;
+        for (BlockEntity blockEntity : blockEntities) {
+            ResourceLocation typeId = ForgeRegistries.BLOCK_ENTITIES.getKey(blockEntity.getType());
+            if (typeId != null && "sophisticatedstorage".equals(typeId.getNamespace())) {
+                storage++;
+            }
+        }
+        return storage;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_ENTITIES)
+    public int legacyClassName() {
+        int matches = 0;
+        for (BlockEntity blockEntity : blockEntities) {
+            String className = blockEntity.getClass().getName();
+            if (className.contains("sophisticatedstorage") || className.contains("sophisticatedbackpacks")) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_ENTITIES)
+    public int classifier() {
+        int storage = 0;
+        for (BlockEntity blockEntity : blockEntities) {
+            if (SophisticatedStorageInventoryProvider.isSophisticatedStorageBlockEntity(blockEntity)) {
+                storage++;
+            }
+        }
+        return storage;
+    }
+}
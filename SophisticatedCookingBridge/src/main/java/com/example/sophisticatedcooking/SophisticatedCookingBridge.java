@@ -1,9 +1,15 @@
 package com.example.sophisticatedcooking;
 
+import com.example.sophisticatedcooking.client.ClientSetup;
 import com.example.sophisticatedcooking.common.Config;
 import com.example.sophisticatedcooking.common.compatibility.SophisticatedStorageCompat;
+import com.example.sophisticatedcooking.common.network.BridgeNetwork;
+import com.example.sophisticatedcooking.common.scheduler.BridgeScheduler;
+import com.example.sophisticatedcooking.integration.CFBApi;
+import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.fml.DistExecutor;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.config.ModConfig;
@@ -25,6 +31,7 @@ public class SophisticatedCookingBridge {
 
         // 注册初始化事件
         modEventBus.addListener(this::commonSetup);
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> modEventBus.addListener(ClientSetup::init));
 
         MinecraftForge.EVENT_BUS.register(this);
 
@@ -34,10 +41,14 @@ public class SophisticatedCookingBridge {
     private void commonSetup(final FMLCommonSetupEvent event) {
         LOGGER.info("Starting Sophisticated Cooking Bridge setup");
 
+        BridgeNetwork.register();
+        BridgeScheduler.register();
+
         // 在后台线程中初始化反射兼容层
         event.enqueueWork(() -> {
             try {
-                // 初始化反射兼容层
+                // 初始化反射兼容层，并预先绑定 API 入口
+                CFBApi.init();
                 SophisticatedStorageCompat.init();
                 LOGGER.info("Sophisticated Cooking Bridge setup complete");
             } catch (Exception e) {
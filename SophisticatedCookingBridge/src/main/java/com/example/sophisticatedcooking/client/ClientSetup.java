@@ -1,5 +1,7 @@
 package com.example.sophisticatedcooking.client;
 
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.event.lifecycle.FMLClientSetupEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -7,10 +9,11 @@ import org.apache.logging.log4j.Logger;
 public class ClientSetup {
     private static final Logger LOGGER = LogManager.getLogger();
 
-    public static void init() {
+    public static void init(final FMLClientSetupEvent event) {
         LOGGER.info("Initializing client setup for Sophisticated Cooking Bridge");
 
-        // 客户端初始化代码
-        // 可以在这里注册渲染器、按键绑定等
+        // 断开连接或切换维度后厨房摘要不再有效
+        MinecraftForge.EVENT_BUS.addListener((ClientPlayerNetworkEvent.LoggedOutEvent loggedOut) -> KitchenInventoryClientCache.clear());
+        MinecraftForge.EVENT_BUS.addListener((ClientPlayerNetworkEvent.RespawnEvent respawn) -> KitchenInventoryClientCache.clear());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.example.sophisticatedcooking.client;
+
+import com.example.sophisticatedcooking.common.inventory.ItemKey;
+import com.example.sophisticatedcooking.common.network.BridgeNetwork;
+import com.example.sophisticatedcooking.common.network.KitchenInventoryMessage;
+import com.example.sophisticatedcooking.common.network.KitchenSubscriptionMessage;
+import com.example.sophisticatedcooking.common.network.KitchenSyncRequestMessage;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * 客户端按厨房坐标缓存的可用物品摘要
+ * 界面代码调用 subscribe 后服务端才开始发送；由快照建立、之后只应用增量，序号不连续时丢弃缓存并请求新的快照。
+ * 服务端同时只为一个厨房发送摘要。只在客户端主线程访问。
+ */
+public class KitchenInventoryClientCache {
+    private static final Long2ObjectOpenHashMap<Summary> KITCHENS = new Long2ObjectOpenHashMap<>();
+    private static BlockPos subscribed = null;
+
+    /**
+     * 订阅厨房的摘要，替换之前的订阅；服务器没有安装本模组时没有效果
+     */
+    public static void subscribe(BlockPos kitchenPos) {
+        if (subscribed != null && !subscribed.equals(kitchenPos)) {
+            KITCHENS.remove(subscribed.asLong());
+        }
+        subscribed = kitchenPos.immutable();
+        if (isServerPresent()) {
+            BridgeNetwork.sendToServer(new KitchenSubscriptionMessage(subscribed, true));
+        }
+    }
+
+    /**
+     * 取消订阅（例如界面关闭时）并丢弃该厨房的摘要
+     */
+    public static void unsubscribe(BlockPos kitchenPos) {
+        if (kitchenPos.equals(subscribed)) {
+            if (isServerPresent()) {
+                BridgeNetwork.sendToServer(new KitchenSubscriptionMessage(subscribed, false));
+            }
+            subscribed = null;
+        }
+        KITCHENS.remove(kitchenPos.asLong());
+    }
+
+    public static void apply(KitchenInventoryMessage message) {
+        long key = message.getKitchenPos().asLong();
+        Summary summary = KITCHENS.get(key);
+
+        if (message.isFull()) {
+            summary = new Summary();
+            KITCHENS.put(key, summary);
+        } else if (summary == null || message.getSequence() != summary.sequence + 1) {
+            KITCHENS.remove(key);
+            BridgeNetwork.sendToServer(new KitchenSyncRequestMessage(message.getKitchenPos()));
+            return;
+        }
+
+        for (KitchenInventoryMessage.Entry entry : message.getEntries()) {
+            if (entry.count() > 0) {
+                summary.counts.put(entry.key(), entry.count());
+            } else {
+                summary.counts.removeLong(entry.key());
+            }
+        }
+        summary.sequence = message.getSequence();
+    }
+
+    /**
+     * 厨房中某物品（含 NBT）的可用数量；没有该厨房的摘要时返回 0
+     */
+    public static long getCount(BlockPos kitchenPos, ItemStack stack) {
+        Summary summary = KITCHENS.get(kitchenPos.asLong());
+        return summary == null || stack.isEmpty() ? 0L : summary.counts.getLong(ItemKey.lookup(stack));
+    }
+
+    /**
+     * 厨房的物品摘要（只读）；没有该厨房的摘要时返回 null
+     */
+    public static Object2LongMap<ItemKey> getSummary(BlockPos kitchenPos) {
+        Summary summary = KITCHENS.get(kitchenPos.asLong());
+        return summary == null ? null : Object2LongMaps.unmodifiable(summary.counts);
+    }
+
+    private static boolean isServerPresent() {
+        ClientPacketListener connection = Minecraft.getInstance().getConnection();
+        return connection != null && BridgeNetwork.CHANNEL.isRemotePresent(connection.getConnection());
+    }
+
+    public static void clear() {
+        KITCHENS.clear();
+        subscribed = null;
+    }
+
+    private static final class Summary {
+        final Object2LongOpenHashMap<ItemKey> counts = new Object2LongOpenHashMap<>();
+        int sequence;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.sophisticatedcooking.common;
 
 import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.discovery.DiscoveryExecution;
+import com.example.sophisticatedcooking.common.discovery.DiscoveryMode;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.fml.common.Mod;
 
@@ -15,6 +17,22 @@ public class Config {
     public static final ForgeConfigSpec.ConfigValue<Boolean> ENABLE_DEBUG_LOGGING;
     public static final ForgeConfigSpec.ConfigValue<Integer> MAX_CONTAINERS_PER_KITCHEN;
     public static final ForgeConfigSpec.ConfigValue<Boolean> REQUIRE_POWER_FOR_ACCESS;
+    public static final ForgeConfigSpec.EnumValue<DiscoveryMode> DISCOVERY_MODE;
+    public static final ForgeConfigSpec.EnumValue<DiscoveryExecution> DISCOVERY_EXECUTION;
+    public static final ForgeConfigSpec.ConfigValue<Integer> CACHE_MAX_ENTRIES;
+    public static final ForgeConfigSpec.ConfigValue<Integer> CACHE_TTL_TICKS;
+    public static final ForgeConfigSpec.ConfigValue<Integer> KITCHEN_CACHE_RADIUS;
+    public static final ForgeConfigSpec.ConfigValue<Boolean> SHARE_REGION_DISCOVERY;
+    public static final ForgeConfigSpec.ConfigValue<Integer> SCHEDULER_TICK_BUDGET;
+    public static final ForgeConfigSpec.ConfigValue<Integer> ENERGY_SAMPLE_INTERVAL;
+    public static final ForgeConfigSpec.ConfigValue<Integer> INVENTORY_SAMPLE_INTERVAL;
+    public static final ForgeConfigSpec.ConfigValue<Integer> INVENTORY_SYNC_INTERVAL;
+    public static final ForgeConfigSpec.ConfigValue<Boolean> ENABLE_METRICS;
+    public static final ForgeConfigSpec.ConfigValue<Integer> METRICS_DUMP_INTERVAL;
+    public static final ForgeConfigSpec.ConfigValue<Boolean> ENABLE_TRACING;
+    public static final ForgeConfigSpec.ConfigValue<Integer> TRACE_SAMPLE_RATE;
+    public static final ForgeConfigSpec.ConfigValue<Integer> TRACE_BUFFER_EVENTS;
+    public static final ForgeConfigSpec.ConfigValue<Integer> TRACE_SLOW_TICK_MILLIS;
 
     static {
         BUILDER.push("Sophisticated Cooking Bridge Configuration");
@@ -26,6 +44,8 @@ public class Config {
 
         ENABLE_BACKPACKS = BUILDER
                 .comment("Enable access to Sophisticated Backpacks (if installed)",
+                        "Backpacks carried by a player are only included by the bridge's player-aware inventory API and kitchen sync,",
+                        "not by Cooking for Blockheads' own recipe book",
                         "Default: true")
                 .define("enableBackpacks", true);
 
@@ -35,9 +55,9 @@ public class Config {
                 .define("showCompatMessage", true);
 
         ENABLE_DEBUG_LOGGING = BUILDER
-                .comment("Enable debug logging for troubleshooting",
-                        "Default: true")
-                .define("enableDebugLogging", true);
+                .comment("Enable debug logging for troubleshooting (logs every discovered container; prefer enableTracing in production)",
+                        "Default: false")
+                .define("enableDebugLogging", false);
 
         MAX_CONTAINERS_PER_KITCHEN = BUILDER
                 .comment("Maximum number of Sophisticated Storage containers a kitchen can access",
@@ -49,6 +69,106 @@ public class Config {
                         "Default: false")
                 .define("requirePowerForAccess", false);
 
+        DISCOVERY_MODE = BUILDER
+                .comment("How kitchens discover nearby containers",
+                        "INDEX: query the incrementally maintained per-dimension container index",
+                        "CHUNK: walk the block entities of loaded chunks inside the search range",
+                        "CUBE: probe every block position in the search cube, nearest shells first",
+                        "LEGACY_CUBE: the original x/y/z probe order, stopping at the limit without sorting (for comparison)",
+                        "(ASYNC execution orders every non-INDEX mode by distance)",
+                        "Default: INDEX")
+                .defineEnum("discoveryMode", DiscoveryMode.INDEX);
+
+        DISCOVERY_EXECUTION = BUILDER
+                .comment("Where cache-miss discovery runs",
+                        "SYNC: discover immediately on the server thread",
+                        "ASYNC: snapshot on the server thread, filter and sort on a worker thread, apply on a later tick",
+                        "(the previous result keeps being served meanwhile; a kitchen's first lookup is still synchronous)",
+                        "Default: SYNC")
+                .defineEnum("discoveryExecution", DiscoveryExecution.SYNC);
+
+        CACHE_MAX_ENTRIES = BUILDER
+                .comment("Maximum number of kitchen container lists kept in the discovery cache (least recently used are evicted)",
+                        "0 disables the cache",
+                        "Default: 256, Min: 0, Max: 4096")
+                .defineInRange("cacheMaxEntries", 256, 0, 4096);
+
+        CACHE_TTL_TICKS = BUILDER
+                .comment("Ticks after which a cached kitchen container list is rediscovered even if nothing invalidated it",
+                        "0 keeps entries until they are invalidated or evicted",
+                        "Default: 600, Min: 0, Max: 72000")
+                .defineInRange("cacheTtlTicks", 600, 0, 72000);
+
+        KITCHEN_CACHE_RADIUS = BUILDER
+                .comment("Cached kitchen membership results are dropped when a block inside the checked kitchen's extent changes",
+                        "This radius (in blocks) is only used as the extent when Cooking for Blockheads does not expose the kitchen's layout",
+                        "0 disables the kitchen membership cache",
+                        "Default: 16, Min: 0, Max: 64")
+                .defineInRange("kitchenCacheRadius", 16, 0, 64);
+
+        SHARE_REGION_DISCOVERY = BUILDER
+                .comment("Let neighbouring kitchens share per-section container lists instead of each scanning its own range",
+                        "Overlapping kitchens then resolve every section once; only used with the INDEX discovery mode",
+                        "Default: true")
+                .define("shareRegionDiscovery", true);
+
+        SCHEDULER_TICK_BUDGET = BUILDER
+                .comment("Microseconds per server tick the bridge may spend on queued background work",
+                        "(async discovery commits, client sync, energy/inventory sampling, metric dumps, scan exports)",
+                        "Work that does not fit is continued on later ticks; at least one task runs every tick",
+                        "Default: 500, Min: 50, Max: 50000")
+                .defineInRange("schedulerTickBudgetMicros", 500, 50, 50000);
+
+        ENERGY_SAMPLE_INTERVAL = BUILDER
+                .comment("Ticks between energy samples of tracked containers when requirePowerForAccess is enabled",
+                        "Default: 20, Min: 1, Max: 1200")
+                .defineInRange("energySampleInterval", 20, 1, 1200);
+
+        INVENTORY_SAMPLE_INTERVAL = BUILDER
+                .comment("Ticks between content comparisons of containers whose change notifications could not be hooked",
+                        "Containers with hooked notifications are only compared when they change",
+                        "0 disables sampling",
+                        "Default: 100, Min: 0, Max: 1200")
+                .defineInRange("inventorySampleInterval", 100, 0, 1200);
+
+        INVENTORY_SYNC_INTERVAL = BUILDER
+                .comment("Ticks between kitchen inventory summary updates sent to clients subscribed to a kitchen",
+                        "Only changed item counts are sent, at most 256 items per packet; 0 disables the sync",
+                        "Default: 5, Min: 0, Max: 200")
+                .defineInRange("inventorySyncInterval", 5, 0, 200);
+
+        ENABLE_METRICS = BUILDER
+                .comment("Record runtime metrics (discovery, provider and cache counters), shown by /sophisticatedcooking stats",
+                        "Default: true")
+                .define("enableMetrics", true);
+
+        METRICS_DUMP_INTERVAL = BUILDER
+                .comment("Seconds between metric reports appended to logs/sophisticatedcooking-metrics.log",
+                        "0 disables the periodic dump",
+                        "Default: 0, Min: 0, Max: 86400")
+                .defineInRange("metricsDumpInterval", 0, 0, 86400);
+
+        ENABLE_TRACING = BUILDER
+                .comment("Record structured trace events into per-thread ring buffers (dump with /sophisticatedcooking trace dump)",
+                        "Default: false")
+                .define("enableTracing", false);
+
+        TRACE_SAMPLE_RATE = BUILDER
+                .comment("Record one of every N trace events per thread",
+                        "Default: 1, Min: 1, Max: 1000")
+                .defineInRange("traceSampleRate", 1, 1, 1000);
+
+        TRACE_BUFFER_EVENTS = BUILDER
+                .comment("Trace events kept per thread (oldest are overwritten); applies to threads that start tracing afterwards",
+                        "Default: 4096, Min: 256, Max: 65536")
+                .defineInRange("traceBufferEvents", 4096, 256, 65536);
+
+        TRACE_SLOW_TICK_MILLIS = BUILDER
+                .comment("Dump the trace buffers automatically when a server tick takes longer than this many milliseconds",
+                        "(at most once every 30 seconds; only while tracing is enabled) 0 disables the trigger",
+                        "Default: 100, Min: 0, Max: 10000")
+                .defineInRange("traceSlowTickMillis", 100, 0, 10000);
+
         BUILDER.pop();
         SPEC = BUILDER.build();
     }
@@ -76,4 +196,68 @@ public class Config {
     public static boolean requirePowerForAccess() {
         return REQUIRE_POWER_FOR_ACCESS.get();
     }
+
+    public static DiscoveryMode getDiscoveryMode() {
+        return DISCOVERY_MODE.get();
+    }
+
+    public static DiscoveryExecution getDiscoveryExecution() {
+        return DISCOVERY_EXECUTION.get();
+    }
+
+    public static int getCacheMaxEntries() {
+        return CACHE_MAX_ENTRIES.get();
+    }
+
+    public static int getCacheTtlTicks() {
+        return CACHE_TTL_TICKS.get();
+    }
+
+    public static int getKitchenCacheRadius() {
+        return KITCHEN_CACHE_RADIUS.get();
+    }
+
+    public static boolean isRegionSharingEnabled() {
+        return SHARE_REGION_DISCOVERY.get();
+    }
+
+    public static int getSchedulerTickBudgetMicros() {
+        return SCHEDULER_TICK_BUDGET.get();
+    }
+
+    public static int getEnergySampleInterval() {
+        return ENERGY_SAMPLE_INTERVAL.get();
+    }
+
+    public static int getInventorySampleInterval() {
+        return INVENTORY_SAMPLE_INTERVAL.get();
+    }
+
+    public static int getInventorySyncInterval() {
+        return INVENTORY_SYNC_INTERVAL.get();
+    }
+
+    public static boolean isMetricsEnabled() {
+        return ENABLE_METRICS.get();
+    }
+
+    public static int getMetricsDumpInterval() {
+        return METRICS_DUMP_INTERVAL.get();
+    }
+
+    public static boolean isTraceEnabled() {
+        return ENABLE_TRACING.get();
+    }
+
+    public static int getTraceSampleRate() {
+        return TRACE_SAMPLE_RATE.get();
+    }
+
+    public static int getTraceBufferEvents() {
+        return TRACE_BUFFER_EVENTS.get();
+    }
+
+    public static int getTraceSlowTickMillis() {
+        return TRACE_SLOW_TICK_MILLIS.get();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.example.sophisticatedcooking.common.cache;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.integration.SophisticatedStorageInventoryProvider;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 持久化的 厨房 → 容器坐标 关联，每个服务端维度一份
+ * 以单个 LongArrayTag 保存：[厨房坐标, (范围 << 32) | 容器数, 容器坐标...]*，容器按距离由近到远排列。
+ * 从磁盘读取的关联只在该厨房第一次查询时使用一次，由 KitchenContainerCache 逐个校验后直接作为结果，
+ * 代替重启后的重新发现；之后的结果都来自正常发现并写回这里。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class KitchenAssociationData extends SavedData {
+    private static final String DATA_NAME = SophisticatedCookingBridge.MOD_ID + "_kitchens";
+    private static final int VERSION = 1;
+    private static final int MAX_KITCHENS = 4096;
+
+    private final Map<Key, long[]> kitchens = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+            if (size() > MAX_KITCHENS) {
+                unverified.remove(eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+    // 从磁盘读取、尚未被使用过的关联
+    private final Set<Key> unverified = new HashSet<>();
+
+    public static KitchenAssociationData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(KitchenAssociationData::load, KitchenAssociationData::new, DATA_NAME);
+    }
+
+    private static KitchenAssociationData load(CompoundTag tag) {
+        KitchenAssociationData data = new KitchenAssociationData();
+        if (tag.getInt("Version") != VERSION) {
+            return data;
+        }
+
+        long[] packed = tag.getLongArray("Kitchens");
+        int i = 0;
+        while (i + 2 <= packed.length) {
+            long origin = packed[i];
+            int range = (int) (packed[i + 1] >>> 32);
+            int count = (int) packed[i + 1];
+            i += 2;
+            if (count < 0 || i + count > packed.length) break;
+
+            long[] positions = new long[count];
+            System.arraycopy(packed, i, positions, 0, count);
+            i += count;
+
+            Key key = new Key(origin, range);
+            data.kitchens.put(key, positions);
+            data.unverified.add(key);
+        }
+        return data;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        LongArrayList packed = new LongArrayList();
+        for (Map.Entry<Key, long[]> entry : kitchens.entrySet()) {
+            long[] positions = entry.getValue();
+            packed.add(entry.getKey().origin());
+            packed.add(((long) entry.getKey().range() << 32) | positions.length);
+            packed.addElements(packed.size(), positions);
+        }
+        tag.putInt("Version", VERSION);
+        tag.put("Kitchens", new LongArrayTag(packed.toLongArray()));
+        return tag;
+    }
+
+    /**
+     * 取出从磁盘读取的关联；每个厨房只能取一次，没有或已取过时返回 null
+     */
+    public long[] takeRestored(BlockPos origin, int range) {
+        Key key = new Key(origin.asLong(), range);
+        return unverified.remove(key) ? kitchens.get(key) : null;
+    }
+
+    /**
+     * 记录一次发现的结果；sources 按由近到远的顺序排列
+     */
+    public void store(BlockPos origin, int range, List<BlockEntity> sources) {
+        long[] positions = new long[sources.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = sources.get(i).getBlockPos().asLong();
+        }
+
+        Key key = new Key(origin.asLong(), range);
+        unverified.remove(key);
+        long[] previous = kitchens.put(key, positions);
+        if (previous == null || !Arrays.equals(previous, positions)) {
+            setDirty();
+        }
+    }
+
+    /**
+     * 有新容器出现在 pos 时，丢弃范围覆盖 pos 的未使用关联（它们不包含这个容器）
+     */
+    private void onContainerAdded(BlockPos pos) {
+        Iterator<Key> iterator = unverified.iterator();
+        while (iterator.hasNext()) {
+            Key key = iterator.next();
+            if (key.covers(pos)) {
+                iterator.remove();
+                kitchens.remove(key);
+                setDirty();
+            }
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockPlaced(BlockEvent.EntityPlaceEvent event) {
+        onBlockChanged(event);
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        onBlockChanged(event);
+    }
+
+    /**
+     * 只关心新出现的容器；被移除的容器会在使用关联时的逐个校验中发现
+     */
+    private static void onBlockChanged(BlockEvent event) {
+        if (!(event.getWorld() instanceof ServerLevel level) || !event.getState().hasBlockEntity()) return;
+
+        KitchenAssociationData data = get(level);
+        if (data.unverified.isEmpty()) return;
+
+        BlockEntity blockEntity = level.getBlockEntity(event.getPos());
+        if (blockEntity != null && SophisticatedStorageInventoryProvider.isSophisticatedStorageBlockEntity(blockEntity)) {
+            data.onContainerAdded(event.getPos());
+        }
+    }
+
+    private record Key(long origin, int range) {
+        boolean covers(BlockPos pos) {
+            return Math.abs(pos.getX() - BlockPos.getX(origin)) <= range
+                    && Math.abs(pos.getY() - BlockPos.getY(origin)) <= range
+                    && Math.abs(pos.getZ() - BlockPos.getZ(origin)) <= range;
+        }
+    }
+}
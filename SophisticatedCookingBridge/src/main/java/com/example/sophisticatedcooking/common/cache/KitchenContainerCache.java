@@ -0,0 +1,477 @@
+package com.example.sophisticatedcooking.common.cache;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.discovery.AsyncContainerDiscovery;
+import com.example.sophisticatedcooking.common.discovery.ContainerDiscovery;
+import com.example.sophisticatedcooking.common.discovery.DiscoveryExecution;
+import com.example.sophisticatedcooking.common.discovery.DiscoveryMode;
+import com.example.sophisticatedcooking.common.discovery.RegionDiscovery;
+import com.example.sophisticatedcooking.common.discovery.StorageContainerIndex;
+import com.example.sophisticatedcooking.common.inventory.AggregatedItemHandler;
+import com.example.sophisticatedcooking.common.inventory.InventoryChangeTracker;
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import com.example.sophisticatedcooking.common.scheduler.BridgeScheduler;
+import com.example.sophisticatedcooking.common.scheduler.TaskPriority;
+import com.example.sophisticatedcooking.common.trace.BridgeTrace;
+import com.example.sophisticatedcooking.common.trace.TraceEvent;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 厨房 → 容器处理器列表的结果缓存
+ * 键为（维度，厨房坐标，搜索范围），按 LRU 淘汰，可选 TTL。每个条目同时持有厨房的聚合库存视图与共享区段订阅，
+ * 淘汰、所在维度卸载或缓存清空时一起释放；失效只丢弃发现结果，视图与订阅保留到下一次访问。
+ * 范围内有容器加入/移出索引或容器的物品能力失效时，只失效受影响的条目。
+ * ASYNC 执行方式下失效的条目保留为过期状态继续提供（去掉已移除的容器），
+ * 同时在后台重新发现，结果由 BridgeScheduler 在之后的 tick 按预算提交；厨房第一次查询仍同步完成。
+ * 发现结果写入 KitchenAssociationData，重启后厨房第一次查询优先校验保存的容器坐标。
+ * 启用 shareRegionDiscovery 时，同步发现改为从 RegionDiscovery 的共享区段读取，范围重叠的厨房只解析一次。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class KitchenContainerCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+    private static final LongAdder INVALIDATIONS = new LongAdder();
+    private static final LongAdder STALE_HITS = new LongAdder();
+
+    private static final Map<Key, Entry> ENTRIES = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > Config.getCacheMaxEntries()) {
+                EVICTIONS.increment();
+                release(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // 正在后台重新发现的条目；值为 true 表示等待期间条目再次失效，提交后仍需刷新
+    private static final Map<Key, Boolean> PENDING = new HashMap<>();
+    // 后台完成、等待主线程提交的结果
+    private static final ConcurrentLinkedQueue<Completed> COMPLETED = new ConcurrentLinkedQueue<>();
+
+    // 提交所有维度已完成的后台结果；超出调度预算时留到下一 tick 继续
+    private static final BridgeScheduler.Task COMMIT_TASK = new BridgeScheduler.Task() {
+        @Override
+        public boolean run(long deadline) {
+            for (ServerLevel level : ServerLifecycleHooks.getCurrentServer().getAllLevels()) {
+                if (!commitCompleted(level, deadline)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // 服务器已停止，未提交的结果引用的容器不再有效
+            COMPLETED.clear();
+            synchronized (KitchenContainerCache.class) {
+                PENDING.clear();
+            }
+        }
+    };
+
+    // 槽位变化只转发给包含该处理器的厨房视图
+    private static final ViewDispatcher DISPATCHER = new ViewDispatcher();
+
+    // 已挂上失效监听的能力对象，避免重复注册监听
+    private static final Map<LazyOptional<?>, Boolean> OBSERVED_CAPABILITIES = new WeakHashMap<>();
+
+    static {
+        // 条目只会在本类加载后产生，因此在这里注册监听即可覆盖所有条目
+        StorageContainerIndex.addListener(KitchenContainerCache::invalidate);
+        InventoryChangeTracker.addListener(KitchenContainerCache::onSlotChanged);
+    }
+
+    /**
+     * 获取厨房附近的容器处理器列表，未命中时执行一次发现并缓存结果
+     * 返回的列表不可修改
+     */
+    public static synchronized List<IItemHandler> getNearbyItemHandlers(Level level, BlockPos origin, int range) {
+        if (level == null) return Collections.emptyList();
+
+        // 客户端与集成服务端共享维度键，客户端查询不进入缓存
+        if (level.isClientSide || Config.getCacheMaxEntries() <= 0) {
+            return ContainerDiscovery.discover(level, origin, range, Config.getMaxContainersPerKitchen(), Config.getDiscoveryMode());
+        }
+
+        Key key = new Key(level.dimension(), origin.asLong(), range);
+        long gameTime = level.getGameTime();
+
+        Entry entry = ENTRIES.get(key);
+        if (entry != null && entry.handlers != null) {
+            if (!entry.stale && !entry.isExpired(gameTime)) {
+                HITS.increment();
+                BridgeTrace.record(TraceEvent.CACHE_HIT, key.origin(), range);
+                return entry.handlers;
+            }
+
+            // 等待后台结果期间继续提供上一次的结果
+            if (Config.getDiscoveryExecution() == DiscoveryExecution.ASYNC) {
+                STALE_HITS.increment();
+                BridgeTrace.record(TraceEvent.CACHE_STALE_HIT, key.origin(), range);
+                scheduleRefresh(level, key, origin, range);
+                return entry.handlers;
+            }
+        }
+        MISSES.increment();
+        BridgeTrace.record(TraceEvent.CACHE_MISS, key.origin(), range);
+
+        if (entry == null) {
+            entry = new Entry(areaOf(origin, range));
+            ENTRIES.put(key, entry);
+        }
+
+        List<BlockEntity> sources = new ArrayList<>();
+        List<IItemHandler> restored = restore(level, origin, range, sources);
+        List<IItemHandler> handlers;
+        if (restored != null) {
+            handlers = Collections.unmodifiableList(restored);
+        } else {
+            handlers = Collections.unmodifiableList(discover(level, entry, origin, range, sources));
+            store(level, origin, range, sources);
+        }
+        observe(key.dimension(), handlers, sources);
+
+        entry.update(handlers, sources, gameTime, false);
+        return handlers;
+    }
+
+    /**
+     * 同步发现；启用区段共享且使用 INDEX 方式时从条目订阅的共享区段读取
+     */
+    private static List<IItemHandler> discover(Level level, Entry entry, BlockPos origin, int range, List<BlockEntity> sources) {
+        if (!Config.isRegionSharingEnabled() || Config.getDiscoveryMode() != DiscoveryMode.INDEX) {
+            return ContainerDiscovery.discover(level, origin, range, Config.getMaxContainersPerKitchen(), Config.getDiscoveryMode(), sources);
+        }
+
+        if (entry.subscription == null) {
+            entry.subscription = RegionDiscovery.subscribe(level, origin, range);
+        }
+        return RegionDiscovery.discover(level, entry.subscription, Config.getMaxContainersPerKitchen(), sources);
+    }
+
+    /**
+     * 使用重启前保存的关联：所有坐标仍是已加载的容器时直接作为结果，否则返回 null 交给正常发现
+     */
+    private static List<IItemHandler> restore(Level level, BlockPos origin, int range, List<BlockEntity> sources) {
+        if (!(level instanceof ServerLevel serverLevel)) return null;
+
+        long[] positions = KitchenAssociationData.get(serverLevel).takeRestored(origin, range);
+        if (positions == null) return null;
+
+        int expected = Math.min(positions.length, Config.getMaxContainersPerKitchen());
+        List<IItemHandler> handlers = AsyncContainerDiscovery.resolve(level, positions, expected, sources);
+        if (handlers.size() != expected) {
+            sources.clear();
+            return null;
+        }
+        return handlers;
+    }
+
+    private static void store(Level level, BlockPos origin, int range, List<BlockEntity> sources) {
+        if (level instanceof ServerLevel serverLevel) {
+            KitchenAssociationData.get(serverLevel).store(origin, range, sources);
+        }
+    }
+
+    private static BoundingBox areaOf(BlockPos origin, int range) {
+        return new BoundingBox(origin.getX() - range, origin.getY() - range, origin.getZ() - range,
+                origin.getX() + range, origin.getY() + range, origin.getZ() + range);
+    }
+
+    /**
+     * 主线程截取快照并把过滤排序交给后台线程；同一条目同时只有一次后台发现
+     */
+    private static void scheduleRefresh(Level level, Key key, BlockPos origin, int range) {
+        if (PENDING.containsKey(key)) return;
+
+        AsyncContainerDiscovery.Snapshot snapshot = AsyncContainerDiscovery.snapshot(level, origin, range, Config.getDiscoveryMode());
+        PENDING.put(key, Boolean.FALSE);
+        BridgeMetrics.recordAsyncSubmit(snapshot.positions().length);
+        BridgeTrace.record(TraceEvent.ASYNC_SUBMIT, key.origin(), snapshot.positions().length);
+        AsyncContainerDiscovery.order(snapshot)
+                .whenComplete((positions, error) -> COMPLETED.add(new Completed(key, positions, error)));
+    }
+
+    /**
+     * 在主线程提交该维度已完成的后台发现结果；至少提交一个后超过 deadline 时返回 false
+     */
+    private static synchronized boolean commitCompleted(Level level, long deadline) {
+        boolean committed = false;
+        Iterator<Completed> iterator = COMPLETED.iterator();
+        while (iterator.hasNext()) {
+            if (committed && System.nanoTime() >= deadline) return false;
+
+            Completed completed = iterator.next();
+            if (completed.key().dimension() != level.dimension()) continue;
+            iterator.remove();
+
+            // 等待期间条目被淘汰或所在维度被清空，结果作废
+            Boolean invalidatedWhilePending = PENDING.remove(completed.key());
+            Entry entry = ENTRIES.get(completed.key());
+            if (invalidatedWhilePending == null || entry == null) continue;
+
+            if (completed.error() != null) {
+                // 条目保持过期状态，下一次查询重新提交
+                LOGGER.error("后台容器发现失败", completed.error());
+                continue;
+            }
+
+            BlockPos origin = BlockPos.of(completed.key().origin());
+            List<BlockEntity> sources = new ArrayList<>();
+            List<IItemHandler> handlers = Collections.unmodifiableList(AsyncContainerDiscovery.resolve(
+                    level, completed.positions(), Config.getMaxContainersPerKitchen(), sources));
+            observe(completed.key().dimension(), handlers, sources);
+            store(level, origin, completed.key().range(), sources);
+
+            entry.update(handlers, sources, level.getGameTime(), invalidatedWhilePending);
+            BridgeMetrics.recordAsyncCommit();
+            BridgeTrace.record(TraceEvent.ASYNC_COMMIT, completed.key().origin(), handlers.size());
+            committed = true;
+        }
+        return true;
+    }
+
+    /**
+     * 获取厨房的聚合库存视图；容器集合未变化时复用已建立的物品索引
+     */
+    public static synchronized AggregatedItemHandler getKitchenInventory(Level level, BlockPos origin, int range) {
+        List<IItemHandler> handlers = getNearbyItemHandlers(level, origin, range);
+        if (level == null || level.isClientSide || Config.getCacheMaxEntries() <= 0) {
+            return new AggregatedItemHandler(handlers);
+        }
+
+        Entry entry = ENTRIES.get(new Key(level.dimension(), origin.asLong(), range));
+        if (entry == null) {
+            return new AggregatedItemHandler(handlers);
+        }
+        if (entry.view == null) {
+            entry.view = new AggregatedItemHandler();
+        }
+        DISPATCHER.setHandlers(entry.view, handlers);
+        return entry.view;
+    }
+
+    /**
+     * 为新发现的容器挂上能力失效监听，并交给 InventoryChangeTracker 跟踪内容变化
+     */
+    private static void observe(ResourceKey<Level> dimension, List<IItemHandler> handlers, List<BlockEntity> sources) {
+        for (int i = 0; i < sources.size(); i++) {
+            observeCapability(dimension, sources.get(i));
+            InventoryChangeTracker.track(sources.get(i), handlers.get(i));
+        }
+    }
+
+    /**
+     * 把容器的槽位变化转发给包含该容器的厨房聚合库存视图
+     */
+    private static synchronized void onSlotChanged(IItemHandler handler, int slot, ItemStack before, ItemStack after) {
+        DISPATCHER.dispatch(handler, slot, before, after);
+    }
+
+    /**
+     * 容器的物品能力失效（方块被破坏、升级替换等）时失效包含该位置的条目
+     */
+    private static void observeCapability(ResourceKey<Level> dimension, BlockEntity blockEntity) {
+        LazyOptional<IItemHandler> capability = blockEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY);
+        if (capability.isPresent() && OBSERVED_CAPABILITIES.put(capability, Boolean.TRUE) == null) {
+            BlockPos pos = blockEntity.getBlockPos().immutable();
+            capability.addListener(invalidated -> invalidate(dimension, new BoundingBox(pos)));
+        }
+    }
+
+    /**
+     * 失效与 area 相交的所有条目
+     */
+    public static synchronized void invalidate(ResourceKey<Level> dimension, BoundingBox area) {
+        BridgeTrace.record(TraceEvent.CACHE_INVALIDATE, BlockPos.asLong(area.minX(), area.minY(), area.minZ()),
+                BlockPos.asLong(area.maxX(), area.maxY(), area.maxZ()));
+        RegionDiscovery.invalidate(dimension, area);
+        for (Map.Entry<Key, Entry> mapEntry : ENTRIES.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            if (mapEntry.getKey().dimension() == dimension && entry.handlers != null && entry.area.intersects(area)) {
+                INVALIDATIONS.increment();
+                if (Config.getDiscoveryExecution() == DiscoveryExecution.ASYNC) {
+                    entry.markStale();
+                    PENDING.replace(mapEntry.getKey(), Boolean.TRUE);
+                } else {
+                    entry.discardResult();
+                }
+            }
+        }
+    }
+
+    public static synchronized void invalidateDimension(ResourceKey<Level> dimension) {
+        Iterator<Map.Entry<Key, Entry>> iterator = ENTRIES.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> mapEntry = iterator.next();
+            if (mapEntry.getKey().dimension() == dimension) {
+                release(mapEntry.getKey(), mapEntry.getValue());
+                iterator.remove();
+            }
+        }
+        RegionDiscovery.discardDimension(dimension);
+    }
+
+    public static synchronized void clear() {
+        ENTRIES.forEach(KitchenContainerCache::release);
+        ENTRIES.clear();
+        PENDING.clear();
+    }
+
+    /**
+     * 条目离开缓存时注销它的视图、释放区段订阅，并作废进行中的后台发现
+     */
+    private static void release(Key key, Entry entry) {
+        if (entry.view != null) {
+            DISPATCHER.remove(entry.view);
+        }
+        if (entry.subscription != null) {
+            RegionDiscovery.release(entry.subscription);
+            entry.subscription = null;
+        }
+        PENDING.remove(key);
+    }
+
+    public static synchronized int size() {
+        return ENTRIES.size();
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static long getEvictions() {
+        return EVICTIONS.sum();
+    }
+
+    public static long getInvalidations() {
+        return INVALIDATIONS.sum();
+    }
+
+    /**
+     * ASYNC 方式下等待后台结果时提供过期结果的次数
+     */
+    public static long getStaleHits() {
+        return STALE_HITS.sum();
+    }
+
+    public static double getHitRate() {
+        long hits = HITS.sum();
+        long total = hits + MISSES.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public static void resetStats() {
+        HITS.reset();
+        MISSES.reset();
+        EVICTIONS.reset();
+        INVALIDATIONS.reset();
+        STALE_HITS.reset();
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && !COMPLETED.isEmpty()) {
+            BridgeScheduler.submit(TaskPriority.REFRESH, COMMIT_TASK);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof Level level && !level.isClientSide) {
+            invalidateDimension(level.dimension());
+        }
+    }
+
+    private record Key(ResourceKey<Level> dimension, long origin, int range) {
+    }
+
+    /**
+     * 一个厨房的缓存状态：发现结果、聚合库存视图与共享区段订阅
+     * handlers 为 null 表示需要重新发现（尚未发现或 SYNC 方式下已失效）；视图与订阅跨失效保留。
+     */
+    private static final class Entry {
+        final BoundingBox area;
+        List<IItemHandler> handlers;
+        List<BlockEntity> sources;
+        long createdAt;
+        boolean stale;
+        AggregatedItemHandler view;
+        RegionDiscovery.Subscription subscription;
+
+        Entry(BoundingBox area) {
+            this.area = area;
+        }
+
+        boolean isExpired(long gameTime) {
+            int ttl = Config.getCacheTtlTicks();
+            return ttl > 0 && gameTime - createdAt >= ttl;
+        }
+
+        void update(List<IItemHandler> handlers, List<BlockEntity> sources, long createdAt, boolean stale) {
+            this.handlers = handlers;
+            this.sources = sources;
+            this.createdAt = createdAt;
+            this.stale = stale;
+        }
+
+        /**
+         * 标记为过期，并去掉已被移除的容器，避免从已破坏的容器中取物
+         */
+        void markStale() {
+            List<IItemHandler> liveHandlers = new ArrayList<>(handlers.size());
+            List<BlockEntity> liveSources = new ArrayList<>(sources.size());
+            for (int i = 0; i < sources.size(); i++) {
+                if (!sources.get(i).isRemoved()) {
+                    liveHandlers.add(handlers.get(i));
+                    liveSources.add(sources.get(i));
+                }
+            }
+            update(Collections.unmodifiableList(liveHandlers), liveSources, createdAt, true);
+        }
+
+        void discardResult() {
+            handlers = null;
+            sources = null;
+            stale = false;
+        }
+    }
+
+    private record Completed(Key key, long[] positions, Throwable error) {
+    }
+}
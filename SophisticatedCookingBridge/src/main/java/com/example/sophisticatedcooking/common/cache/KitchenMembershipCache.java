@@ -0,0 +1,257 @@
+package com.example.sophisticatedcooking.common.cache;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.LongConsumer;
+
+/**
+ * 坐标 → 是否属于厨房多方块结构的结果缓存，每个服务端维度一份
+ * 每个结果记住检查时厨房多方块结构遍历到的范围（向外扩一格，相邻的新方块也可能连入）；
+ * 方块变化只清除范围包含该坐标的结果，大型厨房任意位置的改动都能清除其全部成员。
+ * CFB 不提供范围时退回以坐标为中心、kitchenCacheRadius 格的范围，超出部分由 cacheTtlTicks 兜底重新检查。
+ * 只在服务端主线程访问。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class KitchenMembershipCache {
+    private static final int MAX_ENTRIES_PER_LEVEL = 16384;
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder INVALIDATIONS = new LongAdder();
+
+    private static final Map<ResourceKey<Level>, Entries> LEVELS = new ConcurrentHashMap<>();
+
+    /**
+     * 查询 pos 是否属于厨房；未命中时调用 check 并连同 extent 给出的结构范围一起缓存
+     * extent 返回包含 pos 的结构范围，null 表示范围未知。客户端维度或缓存关闭时直接调用 check
+     */
+    public static boolean isPartOfKitchen(Level level, BlockPos pos, BiPredicate<Level, BlockPos> check,
+                                          BiFunction<Level, BlockPos, BoundingBox> extent) {
+        if (!(level instanceof ServerLevel) || Config.getKitchenCacheRadius() <= 0) {
+            return check.test(level, pos);
+        }
+
+        Entries entries = LEVELS.computeIfAbsent(level.dimension(), key -> new Entries());
+        return isPartOfKitchen(entries, level.getGameTime(), level, pos, check, extent);
+    }
+
+    /**
+     * 在给定的结果表中查询；level 只传给 check 与 extent，基准测试可以用替身函数直接调用
+     */
+    static boolean isPartOfKitchen(Entries entries, long gameTime, Level level, BlockPos pos, BiPredicate<Level, BlockPos> check,
+                                   BiFunction<Level, BlockPos, BoundingBox> extent) {
+        long packedPos = pos.asLong();
+        int ttl = Config.getCacheTtlTicks();
+
+        Entry cached = entries.get(packedPos);
+        if (cached != null && (ttl <= 0 || gameTime - cached.checkedAt < ttl)) {
+            HITS.increment();
+            return cached.member;
+        }
+
+        MISSES.increment();
+        boolean member = check.test(level, pos);
+        BoundingBox bounds = extent.apply(level, pos);
+        bounds = bounds == null ? new BoundingBox(pos).inflatedBy(Config.getKitchenCacheRadius()) : bounds.inflatedBy(1);
+        entries.put(new Entry(packedPos, gameTime, member, bounds));
+        return member;
+    }
+
+    /**
+     * 清除结构范围包含 pos 的所有缓存结果
+     */
+    public static void invalidate(Level level, BlockPos pos) {
+        Entries entries = LEVELS.get(level.dimension());
+        if (entries == null || entries.size() == 0) return;
+
+        int removed = entries.removeContaining(pos);
+        if (removed > 0) {
+            INVALIDATIONS.add(removed);
+        }
+    }
+
+    public static void clear() {
+        LEVELS.clear();
+    }
+
+    public static int size() {
+        int size = 0;
+        for (Entries entries : LEVELS.values()) {
+            size += entries.size();
+        }
+        return size;
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static long getInvalidations() {
+        return INVALIDATIONS.sum();
+    }
+
+    public static void resetStats() {
+        HITS.reset();
+        MISSES.reset();
+        INVALIDATIONS.reset();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockPlaced(BlockEvent.EntityPlaceEvent event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            invalidate(level, event.getPos());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            invalidate(level, event.getPos());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            Entries entries = LEVELS.get(level.dimension());
+            if (entries == null || entries.size() == 0) return;
+
+            ChunkPos chunkPos = event.getChunk().getPos();
+            for (int sectionY = level.getMinSection(); sectionY < level.getMaxSection(); sectionY++) {
+                entries.removeInSection(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            LEVELS.remove(level.dimension());
+        }
+    }
+
+    /**
+     * 一个坐标的检查结果与检查时的结构范围
+     */
+    private record Entry(long pos, long checkedAt, boolean member, BoundingBox bounds) {
+    }
+
+    /**
+     * 按坐标保存结果，并按区段登记范围与该区段相交的结果，方块变化时只查看所在区段的登记
+     */
+    static final class Entries {
+        private final Long2ObjectOpenHashMap<Entry> byPos = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectOpenHashMap<ReferenceOpenHashSet<Entry>> bySection = new Long2ObjectOpenHashMap<>();
+
+        int size() {
+            return byPos.size();
+        }
+
+        Entry get(long packedPos) {
+            return byPos.get(packedPos);
+        }
+
+        void put(Entry entry) {
+            if (byPos.size() >= MAX_ENTRIES_PER_LEVEL) {
+                // 超出上限时整体清空，比逐条淘汰更简单且足够少见
+                byPos.clear();
+                bySection.clear();
+            }
+
+            Entry previous = byPos.put(entry.pos(), entry);
+            if (previous != null) {
+                unregister(previous);
+            }
+
+            BoundingBox bounds = entry.bounds();
+            forEachSection(bounds, sectionKey -> bySection.computeIfAbsent(sectionKey, key -> new ReferenceOpenHashSet<>()).add(entry));
+        }
+
+        /**
+         * 移除范围包含 pos 的结果，返回移除数量
+         */
+        int removeContaining(BlockPos pos) {
+            ReferenceOpenHashSet<Entry> candidates = bySection.get(SectionPos.asLong(pos));
+            if (candidates == null) return 0;
+
+            List<Entry> matched = new ArrayList<>();
+            for (Entry entry : candidates) {
+                if (entry.bounds().isInside(pos)) {
+                    matched.add(entry);
+                }
+            }
+            for (Entry entry : matched) {
+                remove(entry);
+            }
+            return matched.size();
+        }
+
+        /**
+         * 移除坐标位于区段内的结果（区块卸载）
+         */
+        void removeInSection(long sectionKey) {
+            ReferenceOpenHashSet<Entry> candidates = bySection.get(sectionKey);
+            if (candidates == null) return;
+
+            List<Entry> matched = new ArrayList<>();
+            for (Entry entry : candidates) {
+                if (SectionPos.blockToSection(entry.pos()) == sectionKey) {
+                    matched.add(entry);
+                }
+            }
+            for (Entry entry : matched) {
+                remove(entry);
+            }
+        }
+
+        private void remove(Entry entry) {
+            byPos.remove(entry.pos(), entry);
+            unregister(entry);
+        }
+
+        private void unregister(Entry entry) {
+            forEachSection(entry.bounds(), sectionKey -> {
+                ReferenceOpenHashSet<Entry> registered = bySection.get(sectionKey);
+                if (registered != null && registered.remove(entry) && registered.isEmpty()) {
+                    bySection.remove(sectionKey);
+                }
+            });
+        }
+
+        private static void forEachSection(BoundingBox bounds, LongConsumer action) {
+            for (int sectionX = SectionPos.blockToSectionCoord(bounds.minX()); sectionX <= SectionPos.blockToSectionCoord(bounds.maxX()); sectionX++) {
+                for (int sectionY = SectionPos.blockToSectionCoord(bounds.minY()); sectionY <= SectionPos.blockToSectionCoord(bounds.maxY()); sectionY++) {
+                    for (int sectionZ = SectionPos.blockToSectionCoord(bounds.minZ()); sectionZ <= SectionPos.blockToSectionCoord(bounds.maxZ()); sectionZ++) {
+                        action.accept(SectionPos.asLong(sectionX, sectionY, sectionZ));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.sophisticatedcooking.common.cache;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.inventory.AggregatedItemHandler;
+import com.example.sophisticatedcooking.common.inventory.InventoryChangeTracker;
+import com.example.sophisticatedcooking.integration.CuriosCompat;
+import com.example.sophisticatedcooking.integration.SBApi;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 玩家携带的精妙背包（物品栏与 Curios 饰品栏）作为厨房材料来源
+ * 只用于知道玩家的入口（带玩家参数的 getKitchenInventory 与厨房库存同步）；CFB 自己的食谱书只看得到放置的背包。
+ * 背包的物品处理器按背包内容 UUID 缓存，只要同一个物品栈实例仍在玩家身上就复用，避免每次都从标签构建包装器；
+ * 缓存的处理器挂上背包物品栏的变化通知，挂不上时由 InventoryChangeTracker 低频采样。
+ * 玩家通过背包界面修改内容（关闭背包界面）或超过 cacheTtlTicks 时重新构建；背包离开玩家身上时停止跟踪。
+ * 只在服务端主线程访问。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class PlayerBackpackCache {
+    private static final String BACKPACKS_NAMESPACE = "net.p3pp3rf1y.sophisticatedbackpacks.";
+    // 检查缓存的背包是否仍在玩家身上的间隔
+    private static final int SWEEP_INTERVAL_TICKS = 20;
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder BUILDS = new LongAdder();
+
+    private static final Map<UUID, CachedBackpack> BACKPACKS = new HashMap<>();
+    private static final Map<UUID, PlayerView> VIEWS = new HashMap<>();
+    // 槽位变化只转发给包含该处理器的玩家视图
+    private static final ViewDispatcher DISPATCHER = new ViewDispatcher();
+
+    static {
+        InventoryChangeTracker.addListener(DISPATCHER::dispatch);
+    }
+
+    /**
+     * 玩家身上所有背包的物品处理器；背包功能关闭或未安装时为空列表
+     */
+    public static List<IItemHandler> getBackpackHandlers(Player player) {
+        if (player == null || player.level.isClientSide || !Config.isBackpacksEnabled() || !SBApi.isApiAvailable()) {
+            return Collections.emptyList();
+        }
+
+        List<IItemHandler> handlers = new ArrayList<>();
+        for (ItemStack stack : getCarriedStacks(player)) {
+            addBackpack(player, stack, handlers);
+        }
+        sweep(player);
+        return handlers;
+    }
+
+    /**
+     * 玩家物品栏与 Curios 饰品栏中的全部物品栈
+     */
+    private static List<ItemStack> getCarriedStacks(Player player) {
+        List<ItemStack> stacks = new ArrayList<>();
+        Inventory inventory = player.getInventory();
+        for (int slot = 0; slot < inventory.getContainerSize(); slot++) {
+            stacks.add(inventory.getItem(slot));
+        }
+
+        IItemHandler curios = CuriosCompat.getEquippedCurios(player);
+        if (curios != null) {
+            for (int slot = 0; slot < curios.getSlots(); slot++) {
+                stacks.add(curios.getStackInSlot(slot));
+            }
+        }
+        return stacks;
+    }
+
+    /**
+     * 停止跟踪已经不在玩家身上的背包（丢出、放进容器、换成其他物品栈实例等）
+     */
+    private static void sweep(Player player) {
+        UUID playerId = player.getUUID();
+        Map<ItemStack, Boolean> carried = null;
+        Iterator<CachedBackpack> iterator = BACKPACKS.values().iterator();
+        while (iterator.hasNext()) {
+            CachedBackpack cached = iterator.next();
+            if (!cached.owner.equals(playerId)) continue;
+
+            if (carried == null) {
+                carried = new IdentityHashMap<>();
+                for (ItemStack stack : getCarriedStacks(player)) {
+                    carried.put(stack, Boolean.TRUE);
+                }
+            }
+            if (!carried.containsKey(cached.stack)) {
+                InventoryChangeTracker.untrack(cached.handler);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void addBackpack(Player player, ItemStack stack, List<IItemHandler> handlers) {
+        if (!SBApi.isBackpack(stack)) return;
+
+        UUID contentsUuid = SBApi.getContentsUuid(stack);
+        if (contentsUuid == null) return;
+
+        long gameTime = player.level.getGameTime();
+        CachedBackpack cached = BACKPACKS.get(contentsUuid);
+        if (cached != null && cached.stack == stack && !cached.isExpired(gameTime)) {
+            HITS.increment();
+            handlers.add(cached.handler);
+            return;
+        }
+
+        if (cached != null) {
+            InventoryChangeTracker.untrack(cached.handler);
+        }
+        IItemHandler handler = SBApi.getItemHandler(stack);
+        if (handler == null) {
+            BACKPACKS.remove(contentsUuid);
+            return;
+        }
+
+        BUILDS.increment();
+        BACKPACKS.put(contentsUuid, new CachedBackpack(player.getUUID(), stack, handler, gameTime));
+        InventoryChangeTracker.track(handler, player.level.dimension(), SBApi.getBackingInventory(stack));
+        handlers.add(handler);
+    }
+
+    /**
+     * 厨房容器加上玩家背包的聚合库存视图；两部分都未变化时复用同一个视图与物品索引
+     */
+    public static AggregatedItemHandler getKitchenInventory(Level level, BlockPos origin, int range, Player player) {
+        AggregatedItemHandler kitchen = KitchenContainerCache.getKitchenInventory(level, origin, range);
+        List<IItemHandler> backpacks = getBackpackHandlers(player);
+        if (backpacks.isEmpty()) {
+            return kitchen;
+        }
+
+        List<IItemHandler> kitchenHandlers = kitchen.getHandlers();
+        PlayerView view = VIEWS.get(player.getUUID());
+        if (view == null || view.kitchenHandlers != kitchenHandlers || !view.backpacks.equals(backpacks)) {
+            List<IItemHandler> combined = new ArrayList<>(kitchenHandlers.size() + backpacks.size());
+            combined.addAll(kitchenHandlers);
+            combined.addAll(backpacks);
+
+            AggregatedItemHandler inventory = view != null ? view.inventory : new AggregatedItemHandler();
+            DISPATCHER.setHandlers(inventory, Collections.unmodifiableList(combined));
+            view = new PlayerView(kitchenHandlers, backpacks, inventory);
+            VIEWS.put(player.getUUID(), view);
+        }
+        return view.inventory;
+    }
+
+    /**
+     * 丢弃玩家身上背包的缓存，下一次使用时重新构建
+     */
+    public static void invalidate(UUID playerId) {
+        Iterator<CachedBackpack> iterator = BACKPACKS.values().iterator();
+        while (iterator.hasNext()) {
+            CachedBackpack cached = iterator.next();
+            if (cached.owner.equals(playerId)) {
+                InventoryChangeTracker.untrack(cached.handler);
+                iterator.remove();
+            }
+        }
+    }
+
+    public static int size() {
+        return BACKPACKS.size();
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getBuilds() {
+        return BUILDS.sum();
+    }
+
+    public static void resetStats() {
+        HITS.reset();
+        BUILDS.reset();
+    }
+
+    @SubscribeEvent
+    public static void onContainerClose(PlayerContainerEvent.Close event) {
+        // 背包界面使用自己的包装器修改内容，缓存的包装器可能已经过时
+        if (!event.getPlayer().level.isClientSide
+                && event.getContainer().getClass().getName().startsWith(BACKPACKS_NAMESPACE)) {
+            invalidate(event.getPlayer().getUUID());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerTick(TickEvent.PlayerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && !event.player.level.isClientSide && !BACKPACKS.isEmpty()
+                && event.player.tickCount % SWEEP_INTERVAL_TICKS == 0) {
+            sweep(event.player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        invalidate(event.getPlayer().getUUID());
+        PlayerView view = VIEWS.remove(event.getPlayer().getUUID());
+        if (view != null) {
+            DISPATCHER.remove(view.inventory());
+        }
+    }
+
+    private record CachedBackpack(UUID owner, ItemStack stack, IItemHandler handler, long createdAt) {
+        boolean isExpired(long gameTime) {
+            int ttl = Config.getCacheTtlTicks();
+            return ttl > 0 && gameTime - createdAt >= ttl;
+        }
+    }
+
+    private record PlayerView(List<IItemHandler> kitchenHandlers, List<IItemHandler> backpacks, AggregatedItemHandler inventory) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.sophisticatedcooking.common.cache;
+
+import com.example.sophisticatedcooking.common.inventory.AggregatedItemHandler;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 处理器 → 包含它的聚合库存视图的索引，槽位变化只转发给这些视图
+ * 视图更换容器集合时经 setHandlers 同步登记，视图丢弃时经 remove 注销。调用方负责同步。
+ */
+final class ViewDispatcher {
+    private final Map<IItemHandler, List<AggregatedItemHandler>> views = new IdentityHashMap<>();
+
+    /**
+     * 更换视图的容器集合并更新登记；传入视图当前的列表实例时什么也不做
+     */
+    void setHandlers(AggregatedItemHandler view, List<IItemHandler> handlers) {
+        List<IItemHandler> previous = view.getHandlers();
+        if (previous == handlers) return;
+
+        unregister(view, previous);
+        view.setHandlers(handlers);
+        for (IItemHandler handler : handlers) {
+            List<AggregatedItemHandler> registered = views.computeIfAbsent(handler, key -> new ArrayList<>(1));
+            if (!registered.contains(view)) {
+                registered.add(view);
+            }
+        }
+    }
+
+    void remove(AggregatedItemHandler view) {
+        unregister(view, view.getHandlers());
+    }
+
+    void dispatch(IItemHandler handler, int slot, ItemStack before, ItemStack after) {
+        List<AggregatedItemHandler> registered = views.get(handler);
+        if (registered == null) return;
+
+        for (int i = 0; i < registered.size(); i++) {
+            registered.get(i).onSlotChanged(handler, slot, before, after);
+        }
+    }
+
+    void clear() {
+        views.clear();
+    }
+
+    private void unregister(AggregatedItemHandler view, List<IItemHandler> handlers) {
+        for (IItemHandler handler : handlers) {
+            List<AggregatedItemHandler> registered = views.get(handler);
+            if (registered != null && registered.remove(view) && registered.isEmpty()) {
+                views.remove(handler);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.sophisticatedcooking.common.command;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.diagnostics.ScanExporter;
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import com.example.sophisticatedcooking.common.trace.BridgeTrace;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.TextComponent;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.nio.file.Path;
+
+/**
+ * /sophisticatedcooking 服务端命令
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class BridgeCommands {
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        register(event.getDispatcher());
+    }
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal(SophisticatedCookingBridge.MOD_ID)
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("stats")
+                        .executes(context -> showStats(context.getSource()))
+                        .then(Commands.literal("reset")
+                                .executes(context -> resetStats(context.getSource())))
+                        .then(Commands.literal("dump")
+                                .executes(context -> dumpStats(context.getSource()))))
+                .then(Commands.literal("trace")
+                        .then(Commands.literal("dump")
+                                .executes(context -> dumpTrace(context.getSource())))
+                        .then(Commands.literal("clear")
+                                .executes(context -> clearTrace(context.getSource()))))
+                .then(Commands.literal("export")
+                        .then(Commands.literal("cancel")
+                                .executes(context -> cancelExport(context.getSource())))
+                        .then(Commands.argument("radius", IntegerArgumentType.integer(1, 1024))
+                                .executes(context -> startExport(context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "radius"), ScanExporter.Format.CSV))
+                                .then(Commands.literal("csv")
+                                        .executes(context -> startExport(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "radius"), ScanExporter.Format.CSV)))
+                                .then(Commands.literal("jsonl")
+                                        .executes(context -> startExport(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "radius"), ScanExporter.Format.JSONL))))));
+    }
+
+    private static int startExport(CommandSourceStack source, int radius, ScanExporter.Format format) {
+        Path file = ScanExporter.start(source, source.getLevel(), new BlockPos(source.getPosition()), radius, format);
+        if (file == null) {
+            source.sendFailure(new TextComponent("An export is already running (use /sophisticatedcooking export cancel)"));
+            return 0;
+        }
+        source.sendSuccess(new TextComponent("Exporting block entities within " + radius + " blocks to " + file), true);
+        return 1;
+    }
+
+    private static int cancelExport(CommandSourceStack source) {
+        if (!ScanExporter.cancel()) {
+            source.sendFailure(new TextComponent("No export is running"));
+            return 0;
+        }
+        source.sendSuccess(new TextComponent("Export cancelled"), true);
+        return 1;
+    }
+
+    private static int showStats(CommandSourceStack source) {
+        for (String line : BridgeMetrics.report()) {
+            source.sendSuccess(new TextComponent(line), false);
+        }
+        return 1;
+    }
+
+    private static int resetStats(CommandSourceStack source) {
+        BridgeMetrics.reset();
+        source.sendSuccess(new TextComponent("Sophisticated Cooking Bridge metrics reset"), true);
+        return 1;
+    }
+
+    private static int dumpTrace(CommandSourceStack source) {
+        if (!BridgeTrace.isEnabled()) {
+            source.sendFailure(new TextComponent("Tracing is disabled (set enableTracing = true in sophisticatedcooking-common.toml)"));
+            return 0;
+        }
+        Path file = BridgeTrace.dump("requested by " + source.getTextName());
+        source.sendSuccess(new TextComponent("Sophisticated Cooking Bridge trace written to " + file), false);
+        return 1;
+    }
+
+    private static int clearTrace(CommandSourceStack source) {
+        BridgeTrace.clear();
+        source.sendSuccess(new TextComponent("Sophisticated Cooking Bridge trace buffers cleared"), true);
+        return 1;
+    }
+
+    private static int dumpStats(CommandSourceStack source) {
+        Path file = BridgeMetrics.dump();
+        source.sendSuccess(new TextComponent("Sophisticated Cooking Bridge metrics written to " + file), false);
+        return 1;
+    }
+}
@@ -2,6 +2,12 @@ package com.example.sophisticatedcooking.common.compatibility;
 
 import com.example.sophisticatedcooking.SophisticatedCookingBridge;
 import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.discovery.StorageContainerIndex;
+import com.example.sophisticatedcooking.common.energy.EnergyStateTracker;
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import com.example.sophisticatedcooking.common.trace.BridgeTrace;
+import com.example.sophisticatedcooking.common.trace.TraceEvent;
+import com.example.sophisticatedcooking.integration.StorageTypeClassifier;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.fml.ModList;
 import org.apache.logging.log4j.LogManager;
@@ -41,6 +47,7 @@ public class SophisticatedStorageCompat {
             isInitialized = true;
             LOGGER.info("✅ 兼容性桥接初始化成功！");
         } catch (Exception e) {
+            BridgeMetrics.recordReflectionFailure();
             LOGGER.error("❌ 桥接初始化失败，详细信息：", e);
             LOGGER.error("提示：请检查 Cooking for Blockheads (v12.2.0) 的 API 是否与桥接模组兼容。");
         }
@@ -140,54 +147,62 @@ public class SophisticatedStorageCompat {
         LOGGER.info("✅ 成功向 Cooking for Blockheads 注册物品处理器提供器。桥接逻辑已就绪。");
     }
 
-    private static Function<BlockEntity, Object> createItemHandlerProvider() {
+    /**
+     * 注册给 CFB 的物品处理器提供函数
+     */
+    static Function<BlockEntity, Object> createItemHandlerProvider() {
         return blockEntity -> {
-            try {
-                if (blockEntity == null) {
-                    return null;
-                }
+            long startNanos = BridgeMetrics.startTimer();
+            Object itemHandler = provideItemHandler(blockEntity);
+            BridgeMetrics.recordProvider(startNanos, itemHandler != null);
+            if (BridgeTrace.isEnabled() && blockEntity != null) {
+                BridgeTrace.record(TraceEvent.PROVIDER, StorageTypeClassifier.classify(blockEntity).ordinal(), itemHandler != null ? 1 : 0,
+                        startNanos == 0L ? 0L : System.nanoTime() - startNanos);
+            }
+            return itemHandler;
+        };
+    }
 
-                String className = blockEntity.getClass().getName();
-                boolean isSophisticatedStorage = className.contains("sophisticatedstorage");
-                boolean isSophisticatedBackpacks = className.contains("sophisticatedbackpacks");
+    private static Object provideItemHandler(BlockEntity blockEntity) {
+        try {
+            if (blockEntity == null) {
+                return null;
+            }
 
-                // 检查是否为目标模组的方块实体
-                if (!isSophisticatedStorage && !(isSophisticatedBackpacks && Config.isBackpacksEnabled())) {
-                    return null;
-                }
+            // 按方块实体类型分类，每种类型只判断一次
+            StorageTypeClassifier.Kind kind = StorageTypeClassifier.classify(blockEntity);
+            boolean isSophisticatedStorage = kind == StorageTypeClassifier.Kind.STORAGE;
+            boolean isSophisticatedBackpacks = kind == StorageTypeClassifier.Kind.BACKPACK;
 
-                // 检查是否需要电源
-                if (Config.requirePowerForAccess()) {
-                    try {
-                        // 使用反射检查能量
-                        Object energyCap = blockEntity.getCapability(
-                                net.minecraftforge.energy.CapabilityEnergy.ENERGY
-                        ).orElse(null);
-
-                        if (energyCap != null) {
-                            // 反射调用getEnergyStored方法
-                            Method getEnergyStoredMethod = energyCap.getClass().getMethod("getEnergyStored");
-                            int energy = (int) getEnergyStoredMethod.invoke(energyCap);
-                            if (energy <= 0) {
-                                return null; // 没有能量，不提供访问
-                            }
-                        }
-                    } catch (Exception e) {
-                        // 忽略能量检查错误
-                    }
+            // 索引遗漏的容器（例如未触发方块更新的放置），补登记
+            if (isSophisticatedStorage) {
+                StorageContainerIndex index = StorageContainerIndex.get(blockEntity.getLevel());
+                if (index != null && !index.contains(blockEntity.getBlockPos())) {
+                    index.add(blockEntity.getBlockPos());
                 }
+            }
 
-                // 返回物品处理器
-                return blockEntity.getCapability(
-                        net.minecraftforge.items.CapabilityItemHandler.ITEM_HANDLER_CAPABILITY
-                ).orElse(null);
-
-            } catch (Exception e) {
-                if (Config.isDebugLoggingEnabled()) {
-                    SophisticatedCookingBridge.LOGGER.error("Error in item handler provider", e);
-                }
+            // 检查是否为目标模组的方块实体
+            if (!isSophisticatedStorage && !(isSophisticatedBackpacks && Config.isBackpacksEnabled())) {
                 return null;
             }
-        };
+
+            // 检查是否需要电源（读取按间隔采样的缓存状态）
+            if (Config.requirePowerForAccess() && !EnergyStateTracker.isPowered(blockEntity)) {
+                return null; // 没有能量，不提供访问
+            }
+
+            // 返回物品处理器
+            return blockEntity.getCapability(
+                    net.minecraftforge.items.CapabilityItemHandler.ITEM_HANDLER_CAPABILITY
+            ).orElse(null);
+
+        } catch (Exception e) {
+            if (Config.isDebugLoggingEnabled()) {
+                SophisticatedCookingBridge.LOGGER.error("Error in item handler provider", e);
+            }
+            BridgeMetrics.recordProviderError();
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,263 @@
+package com.example.sophisticatedcooking.common.diagnostics;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.scheduler.BridgeScheduler;
+import com.example.sophisticatedcooking.common.scheduler.TaskPriority;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.TextComponent;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 方块实体扫描导出（debugAllStorageBlockEntities 的命令版）
+ * 每个方块实体一行（坐标、类名、注册 ID、是否有物品能力、槽位数），写入 CSV 或 JSON Lines 文件。
+ * 按区块由近到远遍历，作为诊断优先级的分段任务交给 BridgeScheduler，每 tick 只处理预算内的区块；
+ * 行在主线程生成，由单独的写线程缓冲写入。
+ * 服务端停止或被导出的维度卸载时导出中止：关闭文件并释放对维度的引用。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class ScanExporter {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // 单线程保证批次按提交顺序写入
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SophisticatedCooking-Export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static ExportJob currentJob = null;
+
+    public enum Format {
+        CSV("csv"),
+        JSONL("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * 开始导出以 center 为中心、水平半径 radius 的区域内所有已加载区块；已有导出进行中时返回 null
+     */
+    public static Path start(CommandSourceStack source, ServerLevel level, BlockPos center, int radius, Format format) {
+        if (currentJob != null) return null;
+
+        Path file = FMLPaths.GAMEDIR.get().resolve("logs")
+                .resolve("sophisticatedcooking-export-" + LocalDateTime.now().format(FILE_TIME) + "." + format.extension);
+
+        List<ChunkPos> chunks = new ArrayList<>();
+        ChunkPos centerChunk = new ChunkPos(center);
+        int chunkRadius = (radius >> 4) + 1;
+        for (int chunkX = centerChunk.x - chunkRadius; chunkX <= centerChunk.x + chunkRadius; chunkX++) {
+            for (int chunkZ = centerChunk.z - chunkRadius; chunkZ <= centerChunk.z + chunkRadius; chunkZ++) {
+                chunks.add(new ChunkPos(chunkX, chunkZ));
+            }
+        }
+        chunks.sort(Comparator.comparingInt(chunk -> chunk.getChessboardDistance(centerChunk)));
+
+        currentJob = new ExportJob(source, level, center, radius, format, file, chunks);
+        WRITER.execute(currentJob::open);
+        BridgeScheduler.submit(TaskPriority.DIAGNOSTICS, currentJob);
+        return file;
+    }
+
+    /**
+     * 取消进行中的导出；已写出的部分保留
+     */
+    public static boolean cancel() {
+        if (currentJob == null) return false;
+
+        ExportJob job = currentJob;
+        currentJob = null;
+        job.release();
+        WRITER.execute(job::closeWriter);
+        return true;
+    }
+
+    public static boolean isRunning() {
+        return currentJob != null;
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        ExportJob job = currentJob;
+        if (job != null && job.level == event.getWorld()) {
+            job.source.sendFailure(new TextComponent("Export stopped: the dimension was unloaded; partial results kept in " + job.file));
+            cancel();
+        }
+    }
+
+    private static final class ExportJob implements BridgeScheduler.Task {
+        // 结束或取消后置空，队列中残留的任务不再持有服务端与维度
+        CommandSourceStack source;
+        ServerLevel level;
+        final BlockPos center;
+        final long radiusSqr;
+        final Format format;
+        final Path file;
+        final List<ChunkPos> chunks;
+        int nextChunk = 0;
+        int loadedChunks = 0;
+        long rows = 0;
+        BufferedWriter writer;
+
+        ExportJob(CommandSourceStack source, ServerLevel level, BlockPos center, int radius, Format format, Path file, List<ChunkPos> chunks) {
+            this.source = source;
+            this.level = level;
+            this.center = center;
+            this.radiusSqr = (long) radius * radius;
+            this.format = format;
+            this.file = file;
+            this.chunks = chunks;
+        }
+
+        void release() {
+            source = null;
+            level = null;
+        }
+
+        @Override
+        public boolean run(long deadline) {
+            // 已被取消
+            if (currentJob != this) return true;
+            if (!step(deadline)) return false;
+
+            currentJob = null;
+            WRITER.execute(this::closeWriter);
+            source.sendSuccess(new TextComponent(String.format(Locale.ROOT,
+                    "Export finished: %d block entities from %d loaded chunks written to %s",
+                    rows, loadedChunks, file)), false);
+            release();
+            return true;
+        }
+
+        /**
+         * 服务器停止时调度器丢弃任务：与 cancel 相同，关闭文件并释放维度
+         */
+        @Override
+        public void close() {
+            if (currentJob == this) {
+                cancel();
+            }
+        }
+
+        /**
+         * 在主线程处理区块直到超出截止时间（至少处理一个区块）；全部完成时返回 true
+         */
+        boolean step(long deadline) {
+            List<String> batch = new ArrayList<>();
+            int processed = 0;
+            while (nextChunk < chunks.size() && (processed++ == 0 || System.nanoTime() < deadline)) {
+                ChunkPos chunkPos = chunks.get(nextChunk++);
+                // 只导出已加载的区块，不触发加载
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkPos.x, chunkPos.z);
+                if (chunk == null) continue;
+
+                loadedChunks++;
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    BlockPos pos = blockEntity.getBlockPos();
+                    long dx = pos.getX() - center.getX();
+                    long dz = pos.getZ() - center.getZ();
+                    if (dx * dx + dz * dz > radiusSqr) continue;
+
+                    batch.add(row(blockEntity));
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                rows += batch.size();
+                WRITER.execute(() -> write(batch));
+            }
+            return nextChunk >= chunks.size();
+        }
+
+        private String row(BlockEntity blockEntity) {
+            BlockPos pos = blockEntity.getBlockPos();
+            String className = blockEntity.getClass().getName();
+            ResourceLocation typeId = ForgeRegistries.BLOCK_ENTITIES.getKey(blockEntity.getType());
+            IItemHandler handler = blockEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY).orElse(null);
+            int slots = handler == null ? 0 : handler.getSlots();
+
+            if (format == Format.CSV) {
+                return pos.getX() + "," + pos.getY() + "," + pos.getZ() + "," + className + "," + typeId + ","
+                        + (handler != null) + "," + slots;
+            }
+            return "{\"x\":" + pos.getX() + ",\"y\":" + pos.getY() + ",\"z\":" + pos.getZ()
+                    + ",\"class\":\"" + escape(className) + "\",\"id\":\"" + escape(String.valueOf(typeId))
+                    + "\",\"item_capability\":" + (handler != null) + ",\"slots\":" + slots + "}";
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+
+        // 以下方法只在写线程上执行
+
+        void open() {
+            try {
+                Files.createDirectories(file.getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                if (format == Format.CSV) {
+                    writer.write("x,y,z,class,registry_id,item_capability,slots");
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                LOGGER.error("无法创建导出文件: {}", file, e);
+            }
+        }
+
+        void write(List<String> batch) {
+            if (writer == null) return;
+            try {
+                for (String line : batch) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                LOGGER.error("写入导出文件失败: {}", file, e);
+                closeWriter();
+            }
+        }
+
+        void closeWriter() {
+            if (writer == null) return;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.error("关闭导出文件失败: {}", file, e);
+            }
+            writer = null;
+        }
+    }
+}
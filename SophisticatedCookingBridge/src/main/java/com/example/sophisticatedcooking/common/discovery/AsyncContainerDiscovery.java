@@ -0,0 +1,147 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import com.example.sophisticatedcooking.integration.SophisticatedStorageInventoryProvider;
+import com.example.sophisticatedcooking.integration.StorageTypeClassifier;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步容器发现的三个阶段
+ * 1. snapshot：主线程截取范围内方块实体的坐标与类型（INDEX 模式直接取索引中的坐标）；
+ * 2. order：后台线程按类型过滤并按到中心的距离排序；
+ * 3. resolve：之后的 tick 回到主线程，按顺序取得仍然有效的容器的物品处理器，并去除共享库存的重复处理器。
+ */
+public class AsyncContainerDiscovery {
+
+    /**
+     * 在主线程截取快照；只读取已加载的区块
+     */
+    public static Snapshot snapshot(Level level, BlockPos centerPos, int range, DiscoveryMode mode) {
+        int minX = centerPos.getX() - range;
+        int maxX = centerPos.getX() + range;
+        int minY = Math.max(centerPos.getY() - range, level.getMinBuildHeight());
+        int maxY = Math.min(centerPos.getY() + range, level.getMaxBuildHeight() - 1);
+        int minZ = centerPos.getZ() - range;
+        int maxZ = centerPos.getZ() + range;
+
+        LongArrayList positions = new LongArrayList();
+        StorageContainerIndex index = StorageContainerIndex.get(level);
+        if (mode == DiscoveryMode.INDEX && index != null) {
+            index.forEachInBox(minX, minY, minZ, maxX, maxY, maxZ, positions::add);
+            return new Snapshot(centerPos.asLong(), positions.toLongArray(), null);
+        }
+
+        List<BlockEntityType<?>> types = new ArrayList<>();
+        for (int chunkX = SectionPos.blockToSectionCoord(minX); chunkX <= SectionPos.blockToSectionCoord(maxX); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(minZ); chunkZ <= SectionPos.blockToSectionCoord(maxZ); chunkZ++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk == null) continue;
+
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    BlockPos pos = blockEntity.getBlockPos();
+                    if (pos.getX() < minX || pos.getX() > maxX || pos.getY() < minY || pos.getY() > maxY
+                            || pos.getZ() < minZ || pos.getZ() > maxZ) {
+                        continue;
+                    }
+                    positions.add(pos.asLong());
+                    types.add(blockEntity.getType());
+                }
+            }
+        }
+        return new Snapshot(centerPos.asLong(), positions.toLongArray(), types.toArray(new BlockEntityType<?>[0]));
+    }
+
+    /**
+     * 在后台线程池中过滤并排序快照，得到按距离由近到远的候选坐标
+     */
+    public static CompletableFuture<long[]> order(Snapshot snapshot) {
+        return CompletableFuture.supplyAsync(() -> filterAndSort(snapshot), Util.backgroundExecutor());
+    }
+
+    static long[] filterAndSort(Snapshot snapshot) {
+        long[] positions = snapshot.positions();
+        BlockEntityType<?>[] types = snapshot.types();
+        int centerX = BlockPos.getX(snapshot.center());
+        int centerY = BlockPos.getY(snapshot.center());
+        int centerZ = BlockPos.getZ(snapshot.center());
+
+        int count = 0;
+        int[] order = new int[positions.length];
+        long[] distances = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            // 索引快照没有类型信息，留到提交阶段校验
+            if (types != null && StorageTypeClassifier.classify(types[i]) != StorageTypeClassifier.Kind.STORAGE) {
+                continue;
+            }
+            long dx = BlockPos.getX(positions[i]) - centerX;
+            long dy = BlockPos.getY(positions[i]) - centerY;
+            long dz = BlockPos.getZ(positions[i]) - centerZ;
+            distances[i] = dx * dx + dy * dy + dz * dz;
+            order[count++] = i;
+        }
+
+        IntArrays.quickSort(order, 0, count, (a, b) -> Long.compare(distances[a], distances[b]));
+
+        long[] ordered = new long[count];
+        for (int i = 0; i < count; i++) {
+            ordered[i] = positions[order[i]];
+        }
+        return ordered;
+    }
+
+    /**
+     * 在主线程按顺序取得候选坐标上仍然有效的容器，最多 maxContainers 个
+     * sources 不为 null 时按相同顺序记录对应的方块实体。
+     */
+    public static List<IItemHandler> resolve(Level level, long[] positions, int maxContainers, List<BlockEntity> sources) {
+        List<IItemHandler> handlers = new ArrayList<>();
+        HandlerDeduplicator deduplicator = new HandlerDeduplicator();
+        StorageContainerIndex index = StorageContainerIndex.get(level);
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (long packedPos : positions) {
+            if (handlers.size() >= maxContainers) break;
+
+            pos.set(packedPos);
+            // 快照之后卸载的区块不重新加载
+            if (!level.isLoaded(pos)) continue;
+
+            BlockEntity blockEntity = level.getBlockEntity(pos);
+            if (blockEntity == null || blockEntity.isRemoved()
+                    || !SophisticatedStorageInventoryProvider.isSophisticatedStorageBlockEntity(blockEntity)) {
+                if (index != null) {
+                    index.remove(packedPos);
+                }
+                continue;
+            }
+
+            IItemHandler handler = SophisticatedStorageInventoryProvider.getItemHandler(blockEntity);
+            if (handler != null && deduplicator.accept(blockEntity, handler)) {
+                handlers.add(handler);
+                if (sources != null) {
+                    sources.add(blockEntity);
+                }
+            }
+        }
+        deduplicator.removeCoveredMembers(handlers, sources);
+        return handlers;
+    }
+
+    /**
+     * 主线程截取的快照；types 为 null 表示来自索引、尚未按类型过滤
+     */
+    public record Snapshot(long center, long[] positions, BlockEntityType<?>[] types) {
+    }
+}
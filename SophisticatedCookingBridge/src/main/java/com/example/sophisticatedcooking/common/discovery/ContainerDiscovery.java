@@ -0,0 +1,418 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import com.example.sophisticatedcooking.common.trace.BridgeTrace;
+import com.example.sophisticatedcooking.common.trace.TraceEvent;
+import com.example.sophisticatedcooking.integration.SophisticatedStorageInventoryProvider;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraftforge.items.IItemHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 精妙存储容器发现引擎
+ * 默认从 StorageContainerIndex 查询；索引不可用（客户端）时按区块遍历方块实体表。
+ * 除 LEGACY_CUBE 外都按距离由近到远交出容器，取满 maxContainers 个后立即停止扫描；
+ * 共享同一份库存的处理器（控制器网络、连接器）由 HandlerDeduplicator 合并。
+ * 算法本体只依赖 DiscoveryView，由 LevelView 适配 Level；基准测试经由 scanCounted 传入替身视图。
+ */
+public class ContainerDiscovery {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * 在以 centerPos 为中心、边长 2*range+1 的立方体内查找精妙存储容器
+     */
+    public static List<IItemHandler> discover(Level level, BlockPos centerPos, int range, int maxContainers, DiscoveryMode mode) {
+        return discover(level, centerPos, range, maxContainers, mode, null);
+    }
+
+    /**
+     * 同上；sources 不为 null 时按相同顺序记录每个处理器对应的方块实体
+     */
+    public static List<IItemHandler> discover(Level level, BlockPos centerPos, int range, int maxContainers, DiscoveryMode mode,
+                                              List<BlockEntity> sources) {
+        List<IItemHandler> handlers = new ArrayList<>();
+
+        if (level == null || centerPos == null || maxContainers <= 0) return handlers;
+
+        long startNanos = BridgeMetrics.startTimer();
+        HandlerDeduplicator deduplicator = new HandlerDeduplicator();
+        long result = scanCounted(new LevelView(level), StorageContainerIndex.get(level),
+                centerPos.getX(), centerPos.getY(), centerPos.getZ(), range, maxContainers, mode,
+                blockEntity -> addHandler(blockEntity, handlers, sources, deduplicator));
+        deduplicator.removeCoveredMembers(handlers, sources);
+        BridgeMetrics.recordDiscovery(level.dimension(), centerPos.asLong(), startNanos, probed(result), accepted(result));
+        BridgeTrace.record(TraceEvent.DISCOVERY, centerPos.asLong(), result,
+                startNanos == 0L ? 0L : System.nanoTime() - startNanos);
+
+        if (Config.isDebugLoggingEnabled()) {
+            LOGGER.debug("[{}] 在 {} 格范围内找到 {} 个精妙存储容器", mode, range, handlers.size());
+        }
+
+        return handlers;
+    }
+
+    /**
+     * 发现算法本体：把范围内的容器依次交给 sink，直到接受数量达到 maxContainers
+     * index 为 null 时 INDEX 模式退化为按区块遍历。结果由 result(accepted, probed) 打包。
+     */
+    static <T> long scanCounted(DiscoveryView<T> view, StorageContainerIndex index,
+                                        int centerX, int centerY, int centerZ, int range, int maxContainers,
+                                        DiscoveryMode mode, ContainerSink<T> sink) {
+        if (maxContainers <= 0) return 0L;
+
+        if (mode == DiscoveryMode.CUBE) {
+            return scanCube(view, centerX, centerY, centerZ, range, maxContainers, sink);
+        }
+        if (mode == DiscoveryMode.LEGACY_CUBE) {
+            return scanLegacyCube(view, centerX, centerY, centerZ, range, maxContainers, sink);
+        }
+        if (mode == DiscoveryMode.INDEX && index != null) {
+            return scanIndex(view, index, centerX, centerY, centerZ, range, maxContainers, sink);
+        }
+        return scanChunks(view, centerX, centerY, centerZ, range, maxContainers, sink);
+    }
+
+    /**
+     * 从容器索引查询：按到中心的最小距离依次访问区段，顺带移除过期条目
+     */
+    private static <T> long scanIndex(DiscoveryView<T> view, StorageContainerIndex index,
+                                      int centerX, int centerY, int centerZ, int range, int maxContainers,
+                                      ContainerSink<T> sink) {
+        int minX = centerX - range;
+        int maxX = centerX + range;
+        int minY = Math.max(centerY - range, view.getMinBuildHeight());
+        int maxY = Math.min(centerY + range, view.getMaxBuildHeight() - 1);
+        int minZ = centerZ - range;
+        int maxZ = centerZ + range;
+
+        if (minY > maxY || index.size() == 0) return 0L;
+
+        int minSectionX = SectionPos.blockToSectionCoord(minX);
+        int minSectionY = SectionPos.blockToSectionCoord(minY);
+        int minSectionZ = SectionPos.blockToSectionCoord(minZ);
+        int sizeX = SectionPos.blockToSectionCoord(maxX) - minSectionX + 1;
+        int sizeY = SectionPos.blockToSectionCoord(maxY) - minSectionY + 1;
+        int sizeZ = SectionPos.blockToSectionCoord(maxZ) - minSectionZ + 1;
+
+        long[] cells = new long[sizeX * sizeY * sizeZ];
+        for (int i = 0; i < cells.length; i++) {
+            int sectionX = minSectionX + i / (sizeY * sizeZ);
+            int sectionY = minSectionY + i / sizeZ % sizeY;
+            int sectionZ = minSectionZ + i % sizeZ;
+            long distanceSqr = square(gap(centerX, SectionPos.sectionToBlockCoord(sectionX)))
+                    + square(gap(centerY, SectionPos.sectionToBlockCoord(sectionY)))
+                    + square(gap(centerZ, SectionPos.sectionToBlockCoord(sectionZ)));
+            cells[i] = (distanceSqr << 32) | i;
+        }
+        Arrays.sort(cells);
+
+        NearestQueue<T> queue = new NearestQueue<>(sink, maxContainers);
+        LongArrayList positions = new LongArrayList();
+        LongArrayList stale = new LongArrayList();
+        int probed = 0;
+
+        for (long cell : cells) {
+            if (queue.drain(cell >>> 32)) break;
+
+            int i = (int) cell;
+            positions.clear();
+            index.forEachInSection(minSectionX + i / (sizeY * sizeZ), minSectionY + i / sizeZ % sizeY, minSectionZ + i % sizeZ,
+                    minX, minY, minZ, maxX, maxY, maxZ, positions::add);
+
+            for (int j = 0; j < positions.size(); j++) {
+                long packedPos = positions.getLong(j);
+                T blockEntity = view.getBlockEntity(BlockPos.getX(packedPos), BlockPos.getY(packedPos), BlockPos.getZ(packedPos));
+                probed++;
+
+                // 索引中的过期条目（例如未触发方块更新的替换）
+                if (blockEntity == null || !view.isContainer(blockEntity)) {
+                    stale.add(packedPos);
+                    continue;
+                }
+                queue.offer(blockEntity, distanceSqr(packedPos, centerX, centerY, centerZ));
+            }
+        }
+        queue.drainAll();
+
+        for (int i = 0; i < stale.size(); i++) {
+            index.remove(stale.getLong(i));
+        }
+        return result(queue.accepted, probed);
+    }
+
+    /**
+     * 按区块遍历：按到中心的最小水平距离依次访问与搜索范围相交的已加载区块，跳过范围内全为空气的区块
+     */
+    private static <T> long scanChunks(DiscoveryView<T> view, int centerX, int centerY, int centerZ, int range,
+                                       int maxContainers, ContainerSink<T> sink) {
+        int minX = centerX - range;
+        int maxX = centerX + range;
+        int minY = Math.max(centerY - range, view.getMinBuildHeight());
+        int maxY = Math.min(centerY + range, view.getMaxBuildHeight() - 1);
+        int minZ = centerZ - range;
+        int maxZ = centerZ + range;
+
+        if (minY > maxY) return 0L;
+
+        int minChunkX = SectionPos.blockToSectionCoord(minX);
+        int minChunkZ = SectionPos.blockToSectionCoord(minZ);
+        int sizeX = SectionPos.blockToSectionCoord(maxX) - minChunkX + 1;
+        int sizeZ = SectionPos.blockToSectionCoord(maxZ) - minChunkZ + 1;
+
+        long[] cells = new long[sizeX * sizeZ];
+        for (int i = 0; i < cells.length; i++) {
+            long distanceSqr = square(gap(centerX, SectionPos.sectionToBlockCoord(minChunkX + i / sizeZ)))
+                    + square(gap(centerZ, SectionPos.sectionToBlockCoord(minChunkZ + i % sizeZ)));
+            cells[i] = (distanceSqr << 32) | i;
+        }
+        Arrays.sort(cells);
+
+        NearestQueue<T> queue = new NearestQueue<>(sink, maxContainers);
+        int probed = 0;
+
+        for (long cell : cells) {
+            if (queue.drain(cell >>> 32)) break;
+
+            int i = (int) cell;
+            Collection<T> blockEntities = view.getChunkBlockEntities(minChunkX + i / sizeZ, minChunkZ + i % sizeZ, minY, maxY);
+            if (blockEntities == null) continue;
+
+            for (T blockEntity : blockEntities) {
+                probed++;
+                long packedPos = view.getPackedPos(blockEntity);
+                int x = BlockPos.getX(packedPos);
+                int y = BlockPos.getY(packedPos);
+                int z = BlockPos.getZ(packedPos);
+                if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+                    continue;
+                }
+
+                if (view.isContainer(blockEntity)) {
+                    queue.offer(blockEntity, distanceSqr(packedPos, centerX, centerY, centerZ));
+                }
+            }
+        }
+        queue.drainAll();
+        return result(queue.accepted, probed);
+    }
+
+    /**
+     * 逐格探测：由内向外逐层探测立方体外壳
+     * 第 r 层上的点到中心的距离不小于 r，因此进入第 r 层之前距离平方不超过 r² 的候选已经确定。
+     */
+    private static <T> long scanCube(DiscoveryView<T> view, int centerX, int centerY, int centerZ, int range,
+                                     int maxContainers, ContainerSink<T> sink) {
+        NearestQueue<T> queue = new NearestQueue<>(sink, maxContainers);
+        int probed = 0;
+
+        for (int r = 0; r <= range; r++) {
+            if (queue.drain((long) r * r)) break;
+
+            for (int x = -r; x <= r; x++) {
+                for (int y = -r; y <= r; y++) {
+                    // 不在 x/y 外表面上时只有 z = ±r 两个点属于这一层
+                    int zStep = Math.abs(x) == r || Math.abs(y) == r ? 1 : 2 * r;
+                    for (int z = -r; z <= r; z += zStep) {
+                        T blockEntity = view.getBlockEntity(centerX + x, centerY + y, centerZ + z);
+                        probed++;
+
+                        if (blockEntity != null && view.isContainer(blockEntity)) {
+                            queue.offer(blockEntity, (long) x * x + (long) y * y + (long) z * z);
+                        }
+                    }
+                }
+            }
+        }
+        queue.drainAll();
+        return result(queue.accepted, probed);
+    }
+
+    /**
+     * 旧实现的逐格探测：按 x → y → z 顺序遍历整个立方体，按遍历顺序接受容器，取满 maxContainers 个即停止
+     * 不按距离排序，结果与其他方式可能不同；只用于与旧行为对比。
+     */
+    private static <T> long scanLegacyCube(DiscoveryView<T> view, int centerX, int centerY, int centerZ, int range,
+                                           int maxContainers, ContainerSink<T> sink) {
+        int accepted = 0;
+        int probed = 0;
+
+        for (int x = -range; x <= range; x++) {
+            for (int y = -range; y <= range; y++) {
+                for (int z = -range; z <= range; z++) {
+                    T blockEntity = view.getBlockEntity(centerX + x, centerY + y, centerZ + z);
+                    probed++;
+
+                    if (blockEntity != null && view.isContainer(blockEntity) && sink.accept(blockEntity)
+                            && ++accepted >= maxContainers) {
+                        return result(accepted, probed);
+                    }
+                }
+            }
+        }
+        return result(accepted, probed);
+    }
+
+    /**
+     * center 到区间 [min, min + 15] 的最短距离
+     */
+    private static int gap(int center, int min) {
+        return Math.max(0, Math.max(min - center, center - (min + 15)));
+    }
+
+    private static long square(int value) {
+        return (long) value * value;
+    }
+
+    private static long distanceSqr(long packedPos, int centerX, int centerY, int centerZ) {
+        return square(BlockPos.getX(packedPos) - centerX)
+                + square(BlockPos.getY(packedPos) - centerY)
+                + square(BlockPos.getZ(packedPos) - centerZ);
+    }
+
+    private static long result(int accepted, int probed) {
+        return ((long) probed << 32) | (accepted & 0xFFFFFFFFL);
+    }
+
+    private static int accepted(long result) {
+        return (int) result;
+    }
+
+    private static int probed(long result) {
+        return (int) (result >>> 32);
+    }
+
+    private static boolean addHandler(BlockEntity blockEntity, List<IItemHandler> handlers, List<BlockEntity> sources,
+                                      HandlerDeduplicator deduplicator) {
+        IItemHandler handler = SophisticatedStorageInventoryProvider.getItemHandler(blockEntity);
+        if (handler == null || !deduplicator.accept(blockEntity, handler)) {
+            return false;
+        }
+
+        handlers.add(handler);
+        if (sources != null) {
+            sources.add(blockEntity);
+        }
+        BridgeTrace.record(TraceEvent.CONTAINER_FOUND, blockEntity.getBlockPos().asLong(), handler.getSlots());
+        if (Config.isDebugLoggingEnabled()) {
+            LOGGER.debug("发现精妙存储容器，位置: {}，槽位: {}", blockEntity.getBlockPos(), handler.getSlots());
+        }
+        return true;
+    }
+
+    /**
+     * 按（距离平方，加入顺序）由近到远把候选交给 sink
+     * 调用方保证之后加入的候选距离平方都不小于 bound 时，堆中不超过 bound 的候选即可确定下来。
+     */
+    private static final class NearestQueue<T> {
+        private final LongHeapPriorityQueue heap = new LongHeapPriorityQueue();
+        private final List<T> candidates = new ArrayList<>();
+        private final ContainerSink<T> sink;
+        private final int maxContainers;
+        private int accepted;
+
+        NearestQueue(ContainerSink<T> sink, int maxContainers) {
+            this.sink = sink;
+            this.maxContainers = maxContainers;
+        }
+
+        void offer(T candidate, long distanceSqr) {
+            heap.enqueue((distanceSqr << 32) | candidates.size());
+            candidates.add(candidate);
+        }
+
+        /**
+         * 交出距离平方不超过 bound 的候选；达到数量上限时返回 true
+         */
+        boolean drain(long bound) {
+            if (accepted >= maxContainers) return true;
+
+            while (!heap.isEmpty() && (heap.firstLong() >>> 32) <= bound) {
+                T candidate = candidates.get((int) heap.dequeueLong());
+                if (sink.accept(candidate) && ++accepted >= maxContainers) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void drainAll() {
+            drain(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 接收发现的容器；返回 true 表示计入数量上限
+     */
+    @FunctionalInterface
+    interface ContainerSink<T> {
+        boolean accept(T blockEntity);
+    }
+
+    /**
+     * 以 Level 实现的世界视图；未加载的区块不会被强制加载（逐格探测模式除外）
+     */
+    private record LevelView(Level level) implements DiscoveryView<BlockEntity> {
+        @Override
+        public int getMinBuildHeight() {
+            return level.getMinBuildHeight();
+        }
+
+        @Override
+        public int getMaxBuildHeight() {
+            return level.getMaxBuildHeight();
+        }
+
+        @Override
+        public BlockEntity getBlockEntity(int x, int y, int z) {
+            return level.getBlockEntity(new BlockPos(x, y, z));
+        }
+
+        @Override
+        public Collection<BlockEntity> getChunkBlockEntities(int chunkX, int chunkZ, int minY, int maxY) {
+            LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (chunk == null || !hasBlocksInRange(chunk, minY, maxY)) {
+                return null;
+            }
+            return chunk.getBlockEntities().values();
+        }
+
+        @Override
+        public long getPackedPos(BlockEntity blockEntity) {
+            return blockEntity.getBlockPos().asLong();
+        }
+
+        @Override
+        public boolean isContainer(BlockEntity blockEntity) {
+            return !blockEntity.isRemoved() && SophisticatedStorageInventoryProvider.isSophisticatedStorageBlockEntity(blockEntity);
+        }
+
+        /**
+         * 区块在 [minY, maxY] 内的区段是否全为空气；全为空气则不可能有方块实体
+         */
+        private static boolean hasBlocksInRange(LevelChunk chunk, int minY, int maxY) {
+            LevelChunkSection[] sections = chunk.getSections();
+            int minSection = Math.max(chunk.getSectionIndex(minY), 0);
+            int maxSection = Math.min(chunk.getSectionIndex(maxY), sections.length - 1);
+            for (int i = minSection; i <= maxSection; i++) {
+                if (!sections[i].hasOnlyAir()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * 维护 StorageContainerIndex 的事件监听
+ * 方块移除和非玩家放置（活塞、机器、爆炸等）都会触发 NeighborNotifyEvent，因此以它为主要入口。
+ * Forge 1.18.2 没有方块实体创建/加载事件（IForgeBlockEntity.onLoad 只能由方块实体自身覆写），
+ * 因此以区块加载登记已有容器、以方块事件登记新容器；不触发方块更新就出现的容器由 CFB 物品提供器在首次访问时补登记。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class ContainerIndexEvents {
+
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getWorld() instanceof Level level && event.getChunk() instanceof LevelChunk chunk) {
+            StorageContainerIndex index = StorageContainerIndex.get(level);
+            if (index != null) {
+                index.onChunkLoad(chunk);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getWorld() instanceof Level level) {
+            StorageContainerIndex index = StorageContainerIndex.get(level);
+            if (index != null) {
+                index.onChunkUnload(event.getChunk().getPos());
+            }
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockPlaced(BlockEvent.EntityPlaceEvent event) {
+        if (event.getWorld() instanceof Level level) {
+            StorageContainerIndex index = StorageContainerIndex.get(level);
+            if (index != null) {
+                index.refresh(level, event.getPos(), event.getPlacedBlock());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getWorld() instanceof Level level) {
+            StorageContainerIndex index = StorageContainerIndex.get(level);
+            if (index != null) {
+                index.refresh(level, event.getPos(), event.getState());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof Level level) {
+            StorageContainerIndex.discard(level);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+/**
+ * 缓存未命中时容器发现的执行方式
+ */
+public enum DiscoveryExecution {
+    /**
+     * 在请求所在的服务端主线程上立即完成发现
+     */
+    SYNC,
+
+    /**
+     * 主线程只截取快照，过滤与排序在后台线程完成，结果在之后的 tick 提交；等待期间继续使用上一次的结果
+     */
+    ASYNC
+}
@@ -0,0 +1,26 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+/**
+ * 容器发现方式
+ */
+public enum DiscoveryMode {
+    /**
+     * 从增量维护的 StorageContainerIndex 中查询，开销只与范围内的容器数量有关
+     */
+    INDEX,
+
+    /**
+     * 只遍历与搜索范围相交的已加载区块，直接读取区块内已有的方块实体表
+     */
+    CHUNK,
+
+    /**
+     * 逐格探测整个立方体，由内向外逐层进行，结果与其他方式一致（由近到远）
+     */
+    CUBE,
+
+    /**
+     * 旧实现原样保留：按 x → y → z 顺序逐格探测，按扫描顺序取满上限为止（不按距离），用作对比基线
+     */
+    LEGACY_CUBE
+}
@@ -0,0 +1,35 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import java.util.Collection;
+
+/**
+ * 发现算法所需的最小世界视图，由 ContainerDiscovery.LevelView 适配 Level
+ * JMH 基准测试用内存中的替身实现，不需要存活的 Level。
+ *
+ * @param <T> 方块实体类型
+ */
+interface DiscoveryView<T> {
+    int getMinBuildHeight();
+
+    int getMaxBuildHeight();
+
+    /**
+     * 该位置的方块实体，没有时返回 null
+     */
+    T getBlockEntity(int x, int y, int z);
+
+    /**
+     * 区块中的方块实体；区块未加载或 [minY, maxY] 内不可能有方块实体时返回 null
+     */
+    Collection<T> getChunkBlockEntities(int chunkX, int chunkZ, int minY, int maxY);
+
+    /**
+     * 方块实体坐标（BlockPos.asLong 格式）
+     */
+    long getPackedPos(T blockEntity);
+
+    /**
+     * 是否为仍然有效的精妙存储容器
+     */
+    boolean isContainer(T blockEntity);
+}
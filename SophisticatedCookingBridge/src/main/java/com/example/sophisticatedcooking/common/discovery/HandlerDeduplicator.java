@@ -0,0 +1,103 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import com.example.sophisticatedcooking.integration.SSApi;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 单次发现内的物品处理器去重，保证每份实际库存只被访问一次
+ * 1. 同一个处理器实例、或背后是同一个 InventoryHandler 的处理器只保留第一个；
+ * 2. 控制器与连接器代表整个网络：网络被收入后，连接到该控制器的容器不再单独加入，
+ *    在此之前已加入的成员由 removeCoveredMembers 移除。
+ * 因此去重后的容器数量可能少于 maxContainers。只在服务端主线程使用。
+ */
+public class HandlerDeduplicator {
+    private static final long NO_NETWORK = Long.MIN_VALUE;
+
+    private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final LongOpenHashSet coveredNetworks = new LongOpenHashSet();
+    // 按接受顺序记录每个处理器所属的网络（控制器坐标）；网络本身与未连接的容器为 NO_NETWORK
+    private final LongArrayList memberOf = new LongArrayList();
+    private int duplicates;
+
+    /**
+     * 判断该方块实体的处理器是否需要加入；返回 true 时调用方必须把它追加到结果末尾
+     */
+    public boolean accept(BlockEntity blockEntity, IItemHandler handler) {
+        if (!seen.add(handler)) {
+            duplicates++;
+            return false;
+        }
+
+        Object backing = SSApi.getBackingInventory(blockEntity);
+        if (backing != null && !seen.add(backing)) {
+            duplicates++;
+            return false;
+        }
+
+        long network = networkOf(blockEntity);
+        if (network != NO_NETWORK) {
+            if (coveredNetworks.contains(network)) {
+                duplicates++;
+                return false;
+            }
+            if (SSApi.isControllerBlockEntity(blockEntity) || SSApi.isLinkBlockEntity(blockEntity)) {
+                coveredNetworks.add(network);
+                memberOf.add(NO_NETWORK);
+                return true;
+            }
+        }
+
+        memberOf.add(network);
+        return true;
+    }
+
+    /**
+     * 移除在所属网络被收入之前就已加入的成员容器；sources 可为 null，不为 null 时必须与 handlers 对齐
+     */
+    public void removeCoveredMembers(List<IItemHandler> handlers, List<BlockEntity> sources) {
+        if (!coveredNetworks.isEmpty()) {
+            int kept = 0;
+            for (int i = 0; i < handlers.size(); i++) {
+                if (coveredNetworks.contains(memberOf.getLong(i))) {
+                    duplicates++;
+                    continue;
+                }
+                handlers.set(kept, handlers.get(i));
+                if (sources != null) {
+                    sources.set(kept, sources.get(i));
+                }
+                kept++;
+            }
+            handlers.subList(kept, handlers.size()).clear();
+            if (sources != null) {
+                sources.subList(kept, sources.size()).clear();
+            }
+        }
+        BridgeMetrics.recordDeduplicated(duplicates);
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * 控制器以自身坐标作为网络标识；容器与连接器取所连接的控制器坐标
+     */
+    private static long networkOf(BlockEntity blockEntity) {
+        if (SSApi.isControllerBlockEntity(blockEntity)) {
+            return blockEntity.getBlockPos().asLong();
+        }
+        BlockPos controllerPos = SSApi.getControllerPos(blockEntity);
+        return controllerPos == null ? NO_NETWORK : controllerPos.asLong();
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import com.example.sophisticatedcooking.common.trace.BridgeTrace;
+import com.example.sophisticatedcooking.common.trace.TraceEvent;
+import com.example.sophisticatedcooking.integration.SophisticatedStorageInventoryProvider;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 相邻厨房共享的区段级容器发现
+ * 每个区段（16x16x16）一个区域条目，保存区段内的容器及其物品处理器，由订阅它的厨房引用计数；
+ * 范围重叠的厨房共用同一批区域，每个区域只从 StorageContainerIndex 解析一次。
+ * 区域内有容器变化时标记为脏、在下一次读取时重新解析；引用计数归零的区域立即释放。
+ * 只在服务端主线程访问。
+ */
+public class RegionDiscovery {
+    private static final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Region>> REGIONS = new ConcurrentHashMap<>();
+    private static final LongAdder REGION_BUILDS = new LongAdder();
+    private static final LongAdder REGION_READS = new LongAdder();
+
+    /**
+     * 订阅覆盖 origin 周围 range 范围的所有区域；返回的订阅必须在不再使用时 release
+     */
+    public static Subscription subscribe(Level level, BlockPos origin, int range) {
+        int minSectionY = Math.max(SectionPos.blockToSectionCoord(origin.getY() - range), level.getMinSection());
+        int maxSectionY = Math.min(SectionPos.blockToSectionCoord(origin.getY() + range), level.getMaxSection() - 1);
+
+        LongArrayList sections = new LongArrayList();
+        Long2ObjectOpenHashMap<Region> regions = REGIONS.computeIfAbsent(level.dimension(), key -> new Long2ObjectOpenHashMap<>());
+        for (int sectionX = SectionPos.blockToSectionCoord(origin.getX() - range); sectionX <= SectionPos.blockToSectionCoord(origin.getX() + range); sectionX++) {
+            for (int sectionZ = SectionPos.blockToSectionCoord(origin.getZ() - range); sectionZ <= SectionPos.blockToSectionCoord(origin.getZ() + range); sectionZ++) {
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    long sectionKey = SectionPos.asLong(sectionX, sectionY, sectionZ);
+                    Region region = regions.get(sectionKey);
+                    if (region == null) {
+                        region = new Region();
+                        regions.put(sectionKey, region);
+                    }
+                    region.refCount++;
+                    sections.add(sectionKey);
+                }
+            }
+        }
+        return new Subscription(level.dimension(), origin.immutable(), range, sections.toLongArray());
+    }
+
+    /**
+     * 释放订阅；引用计数归零的区域被移除
+     */
+    public static void release(Subscription subscription) {
+        if (subscription.released) return;
+        subscription.released = true;
+
+        Long2ObjectOpenHashMap<Region> regions = REGIONS.get(subscription.dimension());
+        if (regions == null) return;
+
+        for (long sectionKey : subscription.sections()) {
+            Region region = regions.get(sectionKey);
+            if (region != null && --region.refCount <= 0) {
+                regions.remove(sectionKey);
+            }
+        }
+    }
+
+    /**
+     * 从订阅的区域中按距离由近到远取出容器，最多 maxContainers 个；sources 不为 null 时按相同顺序记录方块实体
+     */
+    public static List<IItemHandler> discover(Level level, Subscription subscription, int maxContainers, List<BlockEntity> sources) {
+        List<IItemHandler> handlers = new ArrayList<>();
+        Long2ObjectOpenHashMap<Region> regions = REGIONS.get(subscription.dimension());
+        if (regions == null || subscription.released || maxContainers <= 0) return handlers;
+
+        long startNanos = BridgeMetrics.startTimer();
+        BlockPos origin = subscription.origin();
+        int range = subscription.range();
+
+        List<BlockEntity> candidates = new ArrayList<>();
+        List<IItemHandler> candidateHandlers = new ArrayList<>();
+        LongArrayList order = new LongArrayList();
+        int probed = 0;
+
+        for (long sectionKey : subscription.sections()) {
+            Region region = regions.get(sectionKey);
+            if (region == null) continue;
+            if (region.dirty) {
+                region.rebuild(level, sectionKey);
+            }
+            REGION_READS.increment();
+
+            for (int i = 0; i < region.containers.size(); i++) {
+                BlockEntity blockEntity = region.containers.get(i);
+                BlockPos pos = blockEntity.getBlockPos();
+                probed++;
+                if (blockEntity.isRemoved() || Math.abs(pos.getX() - origin.getX()) > range
+                        || Math.abs(pos.getY() - origin.getY()) > range || Math.abs(pos.getZ() - origin.getZ()) > range) {
+                    continue;
+                }
+                long dx = pos.getX() - origin.getX();
+                long dy = pos.getY() - origin.getY();
+                long dz = pos.getZ() - origin.getZ();
+                order.add((dx * dx + dy * dy + dz * dz) << 32 | candidates.size());
+                candidates.add(blockEntity);
+                candidateHandlers.add(region.handlers.get(i));
+            }
+        }
+
+        long[] sorted = order.toLongArray();
+        Arrays.sort(sorted);
+        HandlerDeduplicator deduplicator = new HandlerDeduplicator();
+        for (long entry : sorted) {
+            if (handlers.size() >= maxContainers) break;
+
+            int index = (int) entry;
+            if (deduplicator.accept(candidates.get(index), candidateHandlers.get(index))) {
+                handlers.add(candidateHandlers.get(index));
+                if (sources != null) {
+                    sources.add(candidates.get(index));
+                }
+                BridgeTrace.record(TraceEvent.CONTAINER_FOUND, candidates.get(index).getBlockPos().asLong(),
+                        candidateHandlers.get(index).getSlots());
+            }
+        }
+        deduplicator.removeCoveredMembers(handlers, sources);
+
+        long result = ((long) probed << 32) | handlers.size();
+        BridgeMetrics.recordDiscovery(subscription.dimension(), origin.asLong(), startNanos, probed, handlers.size());
+        BridgeTrace.record(TraceEvent.DISCOVERY, origin.asLong(), result,
+                startNanos == 0L ? 0L : System.nanoTime() - startNanos);
+        return handlers;
+    }
+
+    /**
+     * 把与 area 相交的区域标记为脏
+     */
+    public static void invalidate(ResourceKey<Level> dimension, BoundingBox area) {
+        Long2ObjectOpenHashMap<Region> regions = REGIONS.get(dimension);
+        if (regions == null || regions.isEmpty()) return;
+
+        for (int sectionX = SectionPos.blockToSectionCoord(area.minX()); sectionX <= SectionPos.blockToSectionCoord(area.maxX()); sectionX++) {
+            for (int sectionY = SectionPos.blockToSectionCoord(area.minY()); sectionY <= SectionPos.blockToSectionCoord(area.maxY()); sectionY++) {
+                for (int sectionZ = SectionPos.blockToSectionCoord(area.minZ()); sectionZ <= SectionPos.blockToSectionCoord(area.maxZ()); sectionZ++) {
+                    Region region = regions.get(SectionPos.asLong(sectionX, sectionY, sectionZ));
+                    if (region != null) {
+                        region.dirty = true;
+                    }
+                }
+            }
+        }
+    }
+
+    public static void discardDimension(ResourceKey<Level> dimension) {
+        REGIONS.remove(dimension);
+    }
+
+    public static int size() {
+        int size = 0;
+        for (Long2ObjectOpenHashMap<Region> regions : REGIONS.values()) {
+            size += regions.size();
+        }
+        return size;
+    }
+
+    public static long getRegionBuilds() {
+        return REGION_BUILDS.sum();
+    }
+
+    public static long getRegionReads() {
+        return REGION_READS.sum();
+    }
+
+    public static void resetStats() {
+        REGION_BUILDS.reset();
+        REGION_READS.reset();
+    }
+
+    /**
+     * 厨房对一组区域的订阅
+     */
+    public static final class Subscription {
+        private final ResourceKey<Level> dimension;
+        private final BlockPos origin;
+        private final int range;
+        private final long[] sections;
+        private boolean released;
+
+        private Subscription(ResourceKey<Level> dimension, BlockPos origin, int range, long[] sections) {
+            this.dimension = dimension;
+            this.origin = origin;
+            this.range = range;
+            this.sections = sections;
+        }
+
+        public ResourceKey<Level> dimension() {
+            return dimension;
+        }
+
+        public BlockPos origin() {
+            return origin;
+        }
+
+        public int range() {
+            return range;
+        }
+
+        long[] sections() {
+            return sections;
+        }
+    }
+
+    private static final class Region {
+        final List<BlockEntity> containers = new ArrayList<>();
+        final List<IItemHandler> handlers = new ArrayList<>();
+        int refCount;
+        boolean dirty = true;
+
+        /**
+         * 从容器索引重新解析区段内的容器，顺带移除索引中的过期条目
+         */
+        void rebuild(Level level, long sectionKey) {
+            containers.clear();
+            handlers.clear();
+            REGION_BUILDS.increment();
+
+            StorageContainerIndex index = StorageContainerIndex.get(level);
+            if (index == null) {
+                dirty = false;
+                return;
+            }
+
+            int sectionX = SectionPos.x(sectionKey);
+            int sectionY = SectionPos.y(sectionKey);
+            int sectionZ = SectionPos.z(sectionKey);
+            int minX = SectionPos.sectionToBlockCoord(sectionX);
+            int minY = SectionPos.sectionToBlockCoord(sectionY);
+            int minZ = SectionPos.sectionToBlockCoord(sectionZ);
+
+            LongArrayList positions = new LongArrayList();
+            index.forEachInSection(sectionX, sectionY, sectionZ, minX, minY, minZ, minX + 15, minY + 15, minZ + 15, positions::add);
+
+            LongArrayList stale = new LongArrayList();
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+            for (int i = 0; i < positions.size(); i++) {
+                long packedPos = positions.getLong(i);
+                BlockEntity blockEntity = level.getBlockEntity(pos.set(packedPos));
+                if (blockEntity == null || blockEntity.isRemoved()
+                        || !SophisticatedStorageInventoryProvider.isSophisticatedStorageBlockEntity(blockEntity)) {
+                    stale.add(packedPos);
+                    continue;
+                }
+
+                IItemHandler handler = SophisticatedStorageInventoryProvider.getItemHandler(blockEntity);
+                if (handler != null) {
+                    containers.add(blockEntity);
+                    handlers.add(handler);
+                }
+            }
+
+            for (int i = 0; i < stale.size(); i++) {
+                index.remove(stale.getLong(i));
+            }
+            // 移除过期条目会通过索引监听再次把本区域标记为脏，结果已经不含这些条目
+            dirty = false;
+        }
+    }
+}
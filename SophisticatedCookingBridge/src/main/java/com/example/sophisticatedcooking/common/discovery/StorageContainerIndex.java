@@ -0,0 +1,252 @@
+package com.example.sophisticatedcooking.common.discovery;
+
+import com.example.sophisticatedcooking.integration.SophisticatedStorageInventoryProvider;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+/**
+ * 每个服务端维度一份的精妙存储容器空间索引
+ * 以区段（16x16x16）为桶保存容器坐标（BlockPos.asLong），查询开销只与范围内的容器数量有关。
+ * 由 ContainerIndexEvents 在区块加载/卸载、方块放置/移除时增量维护，只在服务端主线程访问。
+ */
+public class StorageContainerIndex {
+    private static final Map<ResourceKey<Level>, StorageContainerIndex> INDICES = new ConcurrentHashMap<>();
+    private static final List<ChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final ResourceKey<Level> dimension;
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> sections = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet indexedChunks = new LongOpenHashSet();
+    private final int minSection;
+    private final int maxSection;
+    private int size;
+
+    private StorageContainerIndex(Level level) {
+        this(level.dimension(), level.getMinSection(), level.getMaxSection());
+    }
+
+    /**
+     * 不经 get 创建、不登记到 INDICES 的独立索引（基准测试）
+     */
+    StorageContainerIndex(ResourceKey<Level> dimension, int minSection, int maxSection) {
+        this.dimension = dimension;
+        this.minSection = minSection;
+        this.maxSection = maxSection;
+    }
+
+    /**
+     * 获取维度对应的索引；客户端维度返回 null
+     */
+    public static StorageContainerIndex get(Level level) {
+        if (!(level instanceof ServerLevel)) {
+            return null;
+        }
+        return INDICES.computeIfAbsent(level.dimension(), key -> new StorageContainerIndex(level));
+    }
+
+    /**
+     * 注册容器变化监听；区域内有容器加入或移出索引时回调
+     */
+    public static void addListener(ChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    static void discard(Level level) {
+        if (level instanceof ServerLevel) {
+            INDICES.remove(level.dimension());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(BlockPos pos) {
+        return contains(pos.asLong());
+    }
+
+    public boolean contains(long packedPos) {
+        LongOpenHashSet positions = sections.get(SectionPos.blockToSection(packedPos));
+        return positions != null && positions.contains(packedPos);
+    }
+
+    /**
+     * 区块是否已登记过；已登记区块中不在索引里的位置可以确定不是容器
+     */
+    public boolean isChunkIndexed(BlockPos pos) {
+        return indexedChunks.contains(ChunkPos.asLong(pos));
+    }
+
+    public void add(BlockPos pos) {
+        add(pos.asLong());
+    }
+
+    public void add(long packedPos) {
+        long sectionKey = SectionPos.blockToSection(packedPos);
+        LongOpenHashSet positions = sections.get(sectionKey);
+        if (positions == null) {
+            positions = new LongOpenHashSet();
+            sections.put(sectionKey, positions);
+        }
+        if (positions.add(packedPos)) {
+            size++;
+            notifyChanged(packedPos);
+        }
+    }
+
+    public void remove(BlockPos pos) {
+        remove(pos.asLong());
+    }
+
+    public void remove(long packedPos) {
+        long sectionKey = SectionPos.blockToSection(packedPos);
+        LongOpenHashSet positions = sections.get(sectionKey);
+        if (positions != null && positions.remove(packedPos)) {
+            size--;
+            if (positions.isEmpty()) {
+                sections.remove(sectionKey);
+            }
+            notifyChanged(packedPos);
+        }
+    }
+
+    /**
+     * 根据方块更新后的状态重新判断该位置是否为容器
+     */
+    public void refresh(Level level, BlockPos pos, BlockState state) {
+        if (!state.hasBlockEntity()) {
+            if (size > 0) {
+                remove(pos);
+            }
+            return;
+        }
+
+        BlockEntity blockEntity = level.getBlockEntity(pos);
+        if (blockEntity != null && SophisticatedStorageInventoryProvider.isSophisticatedStorageBlockEntity(blockEntity)) {
+            add(pos);
+        } else {
+            remove(pos);
+        }
+    }
+
+    public void onChunkLoad(LevelChunk chunk) {
+        for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+            if (SophisticatedStorageInventoryProvider.isSophisticatedStorageBlockEntity(blockEntity)) {
+                add(blockEntity.getBlockPos());
+            }
+        }
+        indexedChunks.add(chunk.getPos().toLong());
+    }
+
+    public void onChunkUnload(ChunkPos chunkPos) {
+        int removed = 0;
+        for (int sectionY = minSection; sectionY < maxSection; sectionY++) {
+            LongOpenHashSet positions = sections.remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+            if (positions != null) {
+                removed += positions.size();
+            }
+        }
+        indexedChunks.remove(chunkPos.toLong());
+
+        if (removed > 0) {
+            size -= removed;
+            notifyChanged(new BoundingBox(chunkPos.getMinBlockX(), SectionPos.sectionToBlockCoord(minSection), chunkPos.getMinBlockZ(),
+                    chunkPos.getMaxBlockX(), SectionPos.sectionToBlockCoord(maxSection) - 1, chunkPos.getMaxBlockZ()));
+        }
+    }
+
+    private void notifyChanged(long packedPos) {
+        if (!LISTENERS.isEmpty()) {
+            int x = BlockPos.getX(packedPos);
+            int y = BlockPos.getY(packedPos);
+            int z = BlockPos.getZ(packedPos);
+            notifyChanged(new BoundingBox(x, y, z, x, y, z));
+        }
+    }
+
+    private void notifyChanged(BoundingBox area) {
+        for (ChangeListener listener : LISTENERS) {
+            listener.onContainersChanged(dimension, area);
+        }
+    }
+
+    /**
+     * 遍历方框 [min, max]（含边界）内的所有容器坐标；回调中不得修改索引
+     */
+    public void forEachInBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, LongConsumer consumer) {
+        if (size == 0) return;
+
+        int minSectionX = SectionPos.blockToSectionCoord(minX);
+        int maxSectionX = SectionPos.blockToSectionCoord(maxX);
+        int minSectionY = Math.max(SectionPos.blockToSectionCoord(minY), minSection);
+        int maxSectionY = Math.min(SectionPos.blockToSectionCoord(maxY), maxSection - 1);
+        int minSectionZ = SectionPos.blockToSectionCoord(minZ);
+        int maxSectionZ = SectionPos.blockToSectionCoord(maxZ);
+
+        for (int sectionX = minSectionX; sectionX <= maxSectionX; sectionX++) {
+            for (int sectionZ = minSectionZ; sectionZ <= maxSectionZ; sectionZ++) {
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    forEachInSection(sectionX, sectionY, sectionZ, minX, minY, minZ, maxX, maxY, maxZ, consumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * 遍历单个区段中位于方框 [min, max]（含边界）内的容器坐标；回调中不得修改索引
+     */
+    public void forEachInSection(int sectionX, int sectionY, int sectionZ,
+                                 int minX, int minY, int minZ, int maxX, int maxY, int maxZ, LongConsumer consumer) {
+        LongOpenHashSet positions = sections.get(SectionPos.asLong(sectionX, sectionY, sectionZ));
+        if (positions == null) return;
+
+        LongIterator iterator = positions.iterator();
+        while (iterator.hasNext()) {
+            long packedPos = iterator.nextLong();
+            int x = BlockPos.getX(packedPos);
+            int y = BlockPos.getY(packedPos);
+            int z = BlockPos.getZ(packedPos);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                consumer.accept(packedPos);
+            }
+        }
+    }
+
+    /**
+     * 遍历以 center 为球心、radius 为半径的球体内的容器坐标
+     */
+    public void forEachInRadius(BlockPos center, int radius, LongConsumer consumer) {
+        long radiusSqr = (long) radius * radius;
+        forEachInBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius,
+                packedPos -> {
+                    long dx = BlockPos.getX(packedPos) - center.getX();
+                    long dy = BlockPos.getY(packedPos) - center.getY();
+                    long dz = BlockPos.getZ(packedPos) - center.getZ();
+                    if (dx * dx + dy * dy + dz * dz <= radiusSqr) {
+                        consumer.accept(packedPos);
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onContainersChanged(ResourceKey<Level> dimension, BoundingBox area);
+    }
+}
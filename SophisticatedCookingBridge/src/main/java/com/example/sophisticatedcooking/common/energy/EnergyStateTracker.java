@@ -0,0 +1,174 @@
+package com.example.sophisticatedcooking.common.energy;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.scheduler.BridgeScheduler;
+import com.example.sophisticatedcooking.common.scheduler.TaskPriority;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.energy.CapabilityEnergy;
+import net.minecraftforge.energy.IEnergyStorage;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * requirePowerForAccess 的能量状态缓存
+ * 每个已知容器保存一个“是否有电”标记，按配置的间隔交给 BridgeScheduler 分段采样（容器很多时摊到多个 tick），能力失效时立即丢弃；
+ * 物品处理器提供器只读取缓存的布尔值。只在服务端主线程访问。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class EnergyStateTracker {
+    private static final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<TrackedContainer>> TRACKED = new HashMap<>();
+    private static final BridgeScheduler.Task SAMPLE_TASK = new BridgeScheduler.Task() {
+        @Override
+        public boolean run(long deadline) {
+            return sample(deadline);
+        }
+
+        @Override
+        public void close() {
+            sampling = null;
+            samplingCursor = 0;
+            ticksSinceSample = 0;
+        }
+    };
+    private static int ticksSinceSample = 0;
+    // 进行中的采样：开始时截取的已跟踪容器与下一个要采样的位置
+    private static TrackedContainer[] sampling = null;
+    private static int samplingCursor = 0;
+
+    /**
+     * 容器当前是否有电；没有能量能力的容器视为有电。首次查询时立即采样并开始跟踪
+     */
+    public static boolean isPowered(BlockEntity blockEntity) {
+        Level level = blockEntity.getLevel();
+        if (level == null || level.isClientSide) {
+            return samplePowered(blockEntity);
+        }
+
+        Long2ObjectOpenHashMap<TrackedContainer> containers = TRACKED.computeIfAbsent(level.dimension(), key -> new Long2ObjectOpenHashMap<>());
+        long packedPos = blockEntity.getBlockPos().asLong();
+        TrackedContainer tracked = containers.get(packedPos);
+
+        if (tracked == null || tracked.blockEntity != blockEntity) {
+            tracked = track(containers, packedPos, blockEntity);
+        }
+        return tracked.powered;
+    }
+
+    private static TrackedContainer track(Long2ObjectOpenHashMap<TrackedContainer> containers, long packedPos, BlockEntity blockEntity) {
+        TrackedContainer tracked = new TrackedContainer(containers, packedPos, blockEntity);
+        tracked.powered = samplePowered(blockEntity);
+        containers.put(packedPos, tracked);
+
+        // 能量能力失效（方块被破坏、升级替换等）时丢弃缓存，下次查询重新采样
+        LazyOptional<IEnergyStorage> capability = blockEntity.getCapability(CapabilityEnergy.ENERGY);
+        if (capability.isPresent()) {
+            capability.addListener(invalidated -> {
+                if (containers.get(packedPos) == tracked) {
+                    containers.remove(packedPos);
+                }
+            });
+        }
+        return tracked;
+    }
+
+    private static boolean samplePowered(BlockEntity blockEntity) {
+        IEnergyStorage energyStorage = blockEntity.getCapability(CapabilityEnergy.ENERGY).orElse(null);
+        return energyStorage == null || energyStorage.getEnergyStored() > 0;
+    }
+
+    /**
+     * 重新采样所有已跟踪的容器，顺带移除已被移除的方块实体；超过 deadline 时让出，下一段从断点继续
+     * 每段至少采样一个容器，全部采样完时返回 true。
+     */
+    private static boolean sample(long deadline) {
+        if (sampling == null) {
+            List<TrackedContainer> snapshot = new ArrayList<>(size());
+            for (Long2ObjectOpenHashMap<TrackedContainer> containers : TRACKED.values()) {
+                snapshot.addAll(containers.values());
+            }
+            sampling = snapshot.toArray(new TrackedContainer[0]);
+            samplingCursor = 0;
+        }
+
+        while (samplingCursor < sampling.length) {
+            TrackedContainer tracked = sampling[samplingCursor];
+            sampling[samplingCursor++] = null;
+
+            // 截取之后已被替换或丢弃的条目不再采样
+            if (tracked.containers.get(tracked.packedPos) == tracked) {
+                if (tracked.blockEntity.isRemoved()) {
+                    tracked.containers.remove(tracked.packedPos);
+                } else {
+                    tracked.powered = samplePowered(tracked.blockEntity);
+                }
+            }
+
+            if (samplingCursor < sampling.length && System.nanoTime() >= deadline) {
+                return false;
+            }
+        }
+        sampling = null;
+        return true;
+    }
+
+    public static int size() {
+        int size = 0;
+        for (Long2ObjectOpenHashMap<TrackedContainer> containers : TRACKED.values()) {
+            size += containers.size();
+        }
+        return size;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || TRACKED.isEmpty()) return;
+
+        if (!Config.requirePowerForAccess()) {
+            // 先清空各维度的表，进行中的采样会跳过这些条目
+            TRACKED.values().forEach(Long2ObjectOpenHashMap::clear);
+            TRACKED.clear();
+            return;
+        }
+
+        if (++ticksSinceSample >= Config.getEnergySampleInterval()) {
+            ticksSinceSample = 0;
+            BridgeScheduler.submit(TaskPriority.MAINTENANCE, SAMPLE_TASK);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof Level level && !level.isClientSide) {
+            Long2ObjectOpenHashMap<TrackedContainer> containers = TRACKED.remove(level.dimension());
+            if (containers != null) {
+                containers.clear();
+            }
+        }
+    }
+
+    private static final class TrackedContainer {
+        // 所属维度的跟踪表与坐标，分段采样时据此判断条目是否仍然有效
+        final Long2ObjectOpenHashMap<TrackedContainer> containers;
+        final long packedPos;
+        final BlockEntity blockEntity;
+        boolean powered;
+
+        TrackedContainer(Long2ObjectOpenHashMap<TrackedContainer> containers, long packedPos, BlockEntity blockEntity) {
+            this.containers = containers;
+            this.packedPos = packedPos;
+            this.blockEntity = blockEntity;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.example.sophisticatedcooking.common.inventory;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多个容器的聚合物品处理器
+ * 维护 物品+NBT → 总数量 / (处理器, 槽位) 的索引：数量查询为 O(1)，按物品提取时只访问持有该物品的槽位。
+ * 容器集合变化时索引标记为脏，在下一次访问时重建；通过本处理器的插入/提取会增量更新索引。
+ * 每个槽位记住上一次见到的物品栈实例、NBT 实例、数量与物品键，所有更新都与它比较后只应用差异，重复通知不会重复计数；
+ * 槽位没变时直接复用记住的物品键，不再计算 NBT 哈希。
+ * 挂上精妙存储变化通知的容器通过 onSlotChanged 接收槽位差异；其他容器（漏斗、玩家、其他模组的直接修改）
+ * 在每 tick 第一次访问时逐槽比较实例与数量，最多滞后一个 tick。原地修改 NBT（不替换标签对象）的修改需调用 invalidate。
+ */
+public class AggregatedItemHandler implements IItemHandler {
+    private List<IItemHandler> handlers = Collections.emptyList();
+    private int[] slotOffsets = new int[1];
+    private final Map<ItemKey, Stock> stock = new HashMap<>();
+    private final Map<IItemHandler, Integer> handlerIndices = new IdentityHashMap<>();
+    // 按全局槽位保存上一次见到的内容
+    private ItemStack[] seenStacks = new ItemStack[0];
+    private CompoundTag[] seenTags = new CompoundTag[0];
+    private int[] seenCounts = new int[0];
+    private ItemKey[] seenKeys = new ItemKey[0];
+    private boolean dirty = true;
+    private long validatedTick = Long.MIN_VALUE;
+    private int version;
+
+    public AggregatedItemHandler() {
+    }
+
+    public AggregatedItemHandler(List<IItemHandler> handlers) {
+        setHandlers(handlers);
+    }
+
+    /**
+     * 更换容器集合；传入同一个列表实例时不会触发重建
+     */
+    public void setHandlers(List<IItemHandler> handlers) {
+        if (this.handlers != handlers) {
+            this.handlers = handlers;
+            this.dirty = true;
+        }
+    }
+
+    public List<IItemHandler> getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * 容器内容被外部修改（漏斗、玩家等）后调用，下一次访问时重建索引
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    private void ensureIndex() {
+        if (dirty) {
+            rebuild();
+            return;
+        }
+
+        long tick = InventoryChangeTracker.getTick();
+        if (tick != validatedTick) {
+            validatedTick = tick;
+            validate();
+        }
+    }
+
+    private void rebuild() {
+        stock.clear();
+        handlerIndices.clear();
+        slotOffsets = new int[handlers.size() + 1];
+
+        int totalSlots = 0;
+        for (int handlerIndex = 0; handlerIndex < handlers.size(); handlerIndex++) {
+            IItemHandler handler = handlers.get(handlerIndex);
+            slotOffsets[handlerIndex] = totalSlots;
+            handlerIndices.putIfAbsent(handler, handlerIndex);
+            totalSlots += handler.getSlots();
+        }
+        slotOffsets[handlers.size()] = totalSlots;
+
+        seenStacks = new ItemStack[totalSlots];
+        seenTags = new CompoundTag[totalSlots];
+        seenCounts = new int[totalSlots];
+        seenKeys = new ItemKey[totalSlots];
+        dirty = false;
+        validatedTick = InventoryChangeTracker.getTick();
+
+        for (int handlerIndex = 0; handlerIndex < handlers.size(); handlerIndex++) {
+            int slots = slotOffsets[handlerIndex + 1] - slotOffsets[handlerIndex];
+            for (int slot = 0; slot < slots; slot++) {
+                syncSlot(handlerIndex, slot);
+            }
+        }
+        version++;
+    }
+
+    /**
+     * 逐槽比较未挂上变化通知的容器；槽位数量变化时改为重建
+     */
+    private void validate() {
+        for (int handlerIndex = 0; handlerIndex < handlers.size(); handlerIndex++) {
+            IItemHandler handler = handlers.get(handlerIndex);
+            if (InventoryChangeTracker.isHooked(handler)) continue;
+
+            int slots = slotOffsets[handlerIndex + 1] - slotOffsets[handlerIndex];
+            if (handler.getSlots() != slots) {
+                rebuild();
+                return;
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                syncSlot(handlerIndex, slot);
+            }
+        }
+    }
+
+    /**
+     * 把槽位的当前内容与上一次见到的内容比较，只把差异应用到索引；内容有变化时返回 true
+     */
+    private boolean syncSlot(int handlerIndex, int slot) {
+        int globalSlot = slotOffsets[handlerIndex] + slot;
+        ItemStack current = handlers.get(handlerIndex).getStackInSlot(slot);
+        int count = current.isEmpty() ? 0 : current.getCount();
+        CompoundTag tag = current.getTag();
+        if (current == seenStacks[globalSlot] && count == seenCounts[globalSlot] && tag == seenTags[globalSlot]) {
+            return false;
+        }
+
+        ItemKey oldKey = seenKeys[globalSlot];
+        ItemKey newKey;
+        if (count == 0) {
+            newKey = null;
+        } else if (oldKey != null && oldKey.matches(current)) {
+            newKey = oldKey;
+        } else {
+            newKey = keyOf(current);
+        }
+
+        long location = location(handlerIndex, slot);
+        if (oldKey != null) {
+            Stock entry = stock.get(oldKey);
+            if (entry != null) {
+                entry.count -= seenCounts[globalSlot];
+                if (newKey != oldKey) {
+                    entry.locations.rem(location);
+                    if (entry.count <= 0) {
+                        stock.remove(oldKey);
+                    }
+                }
+            }
+        }
+        if (newKey != null) {
+            Stock entry = stock.get(newKey);
+            if (entry == null) {
+                entry = new Stock(newKey);
+                stock.put(newKey, entry);
+            }
+            entry.count += count;
+            if (newKey != oldKey || !entry.locations.contains(location)) {
+                entry.locations.add(location);
+            }
+        }
+
+        seenStacks[globalSlot] = current;
+        seenTags[globalSlot] = tag;
+        seenCounts[globalSlot] = count;
+        seenKeys[globalSlot] = newKey;
+        version++;
+        return true;
+    }
+
+    /**
+     * 可长期保存的物品键；索引中已有相同物品时复用其键，不再复制 NBT
+     */
+    private ItemKey keyOf(ItemStack stack) {
+        Stock entry = stock.get(ItemKey.lookup(stack));
+        return entry != null ? entry.key : ItemKey.of(stack);
+    }
+
+    /**
+     * 索引内容的版本号；重建或增量更新后递增，用于判断库存摘要是否需要重新比较
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * 聚合库存中某物品（含 NBT）的总数量
+     */
+    public long getCount(ItemStack stack) {
+        if (stack.isEmpty()) return 0;
+        ensureIndex();
+        Stock entry = stock.get(ItemKey.lookup(stack));
+        return entry == null ? 0 : entry.count;
+    }
+
+    public long getCount(ItemKey key) {
+        ensureIndex();
+        Stock entry = stock.get(key);
+        return entry == null ? 0 : entry.count;
+    }
+
+    public boolean has(ItemStack stack, long amount) {
+        return getCount(stack) >= amount;
+    }
+
+    /**
+     * 当前库存中所有物品的键（只读）
+     */
+    public Set<ItemKey> getStockedItems() {
+        ensureIndex();
+        return Collections.unmodifiableSet(stock.keySet());
+    }
+
+    /**
+     * 按物品提取，直接访问索引中持有该物品的槽位
+     */
+    public ItemStack extract(ItemStack template, int amount, boolean simulate) {
+        if (template.isEmpty()) return ItemStack.EMPTY;
+        return extract(ItemKey.lookup(template), amount, simulate);
+    }
+
+    public ItemStack extract(ItemKey key, int amount, boolean simulate) {
+        if (amount <= 0) return ItemStack.EMPTY;
+        ensureIndex();
+
+        Stock entry = stock.get(key);
+        if (entry == null) return ItemStack.EMPTY;
+
+        ItemStack result = ItemStack.EMPTY;
+        int remaining = amount;
+
+        // 倒序遍历，执行提取时可以直接移除已取空的位置
+        for (int i = entry.locations.size() - 1; i >= 0 && remaining > 0; i--) {
+            long location = entry.locations.getLong(i);
+            IItemHandler handler = handlers.get(handlerIndex(location));
+            int slot = slot(location);
+
+            if (slot >= handler.getSlots()) {
+                // 槽位数量变化，索引已过期
+                dirty = true;
+                continue;
+            }
+            if (!key.matches(handler.getStackInSlot(slot))) {
+                // 本 tick 内被外部修改，按槽位当前内容更新索引
+                syncSlot(handlerIndex(location), slot);
+                continue;
+            }
+
+            ItemStack extracted = handler.extractItem(slot, remaining, simulate);
+            if (extracted.isEmpty()) continue;
+
+            // extractItem 每次最多取一组；堆叠升级的槽位可能超过一组
+            int taken = extracted.getCount();
+            if (simulate) {
+                // 模拟不改变槽位，重复调用只会得到同样的结果，改按槽位数量估算
+                taken = Math.max(taken, Math.min(remaining, handler.getStackInSlot(slot).getCount()));
+            } else {
+                while (taken < remaining) {
+                    ItemStack more = handler.extractItem(slot, remaining - taken, false);
+                    if (more.isEmpty()) break;
+                    taken += more.getCount();
+                }
+            }
+
+            remaining -= taken;
+            if (result.isEmpty()) {
+                result = extracted;
+                result.setCount(taken);
+            } else {
+                result.grow(taken);
+            }
+
+            // 取空的槽位会从 entry.locations 中移除，倒序遍历不受影响
+            if (!simulate) {
+                InventoryChangeTracker.flushSlot(handler, slot);
+                syncSlot(handlerIndex(location), slot);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int getSlots() {
+        ensureIndex();
+        return slotOffsets[handlers.size()];
+    }
+
+    @Override
+    public ItemStack getStackInSlot(int slot) {
+        ensureIndex();
+        int handlerIndex = handlerIndexForSlot(slot);
+        if (handlerIndex < 0) return ItemStack.EMPTY;
+
+        IItemHandler handler = handlers.get(handlerIndex);
+        int localSlot = slot - slotOffsets[handlerIndex];
+        return localSlot < handler.getSlots() ? handler.getStackInSlot(localSlot) : ItemStack.EMPTY;
+    }
+
+    @Override
+    public ItemStack insertItem(int slot, ItemStack stack, boolean simulate) {
+        ensureIndex();
+        int handlerIndex = handlerIndexForSlot(slot);
+        if (handlerIndex < 0 || stack.isEmpty()) return stack;
+
+        IItemHandler handler = handlers.get(handlerIndex);
+        int localSlot = slot - slotOffsets[handlerIndex];
+        if (localSlot >= handler.getSlots()) return stack;
+
+        ItemStack remainder = handler.insertItem(localSlot, stack, simulate);
+        if (!simulate && remainder.getCount() != stack.getCount()) {
+            InventoryChangeTracker.flushSlot(handler, localSlot);
+            syncSlot(handlerIndex, localSlot);
+        }
+        return remainder;
+    }
+
+    @Override
+    public ItemStack extractItem(int slot, int amount, boolean simulate) {
+        ensureIndex();
+        int handlerIndex = handlerIndexForSlot(slot);
+        if (handlerIndex < 0) return ItemStack.EMPTY;
+
+        IItemHandler handler = handlers.get(handlerIndex);
+        int localSlot = slot - slotOffsets[handlerIndex];
+        if (localSlot >= handler.getSlots()) return ItemStack.EMPTY;
+
+        ItemStack extracted = handler.extractItem(localSlot, amount, simulate);
+        if (!simulate && !extracted.isEmpty()) {
+            InventoryChangeTracker.flushSlot(handler, localSlot);
+            syncSlot(handlerIndex, localSlot);
+        }
+        return extracted;
+    }
+
+    @Override
+    public int getSlotLimit(int slot) {
+        ensureIndex();
+        int handlerIndex = handlerIndexForSlot(slot);
+        if (handlerIndex < 0) return 0;
+
+        IItemHandler handler = handlers.get(handlerIndex);
+        int localSlot = slot - slotOffsets[handlerIndex];
+        return localSlot < handler.getSlots() ? handler.getSlotLimit(localSlot) : 0;
+    }
+
+    @Override
+    public boolean isItemValid(int slot, ItemStack stack) {
+        ensureIndex();
+        int handlerIndex = handlerIndexForSlot(slot);
+        if (handlerIndex < 0) return false;
+
+        IItemHandler handler = handlers.get(handlerIndex);
+        int localSlot = slot - slotOffsets[handlerIndex];
+        return localSlot < handler.getSlots() && handler.isItemValid(localSlot, stack);
+    }
+
+    /**
+     * 槽位内容发生变化（来自 InventoryChangeTracker）；与槽位上一次见到的内容比较，不属于本视图的处理器直接忽略
+     */
+    public void onSlotChanged(IItemHandler handler, int slot, ItemStack before, ItemStack after) {
+        if (dirty) return;
+
+        Integer handlerIndex = handlerIndices.get(handler);
+        if (handlerIndex == null) return;
+
+        // 槽位数量变化时全局槽位偏移失效
+        if (slot >= slotOffsets[handlerIndex + 1] - slotOffsets[handlerIndex] || slot >= handler.getSlots()) {
+            dirty = true;
+            version++;
+            return;
+        }
+        syncSlot(handlerIndex, slot);
+    }
+
+    /**
+     * 查找包含全局槽位 slot 的处理器序号（最后一个起始偏移 <= slot 的处理器）
+     */
+    private int handlerIndexForSlot(int slot) {
+        int handlerCount = handlers.size();
+        if (slot < 0 || slot >= slotOffsets[handlerCount]) return -1;
+
+        int low = 0;
+        int high = handlerCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (slotOffsets[mid] <= slot) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static long location(int handlerIndex, int slot) {
+        return ((long) handlerIndex << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+    private static int handlerIndex(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int slot(long location) {
+        return (int) location;
+    }
+
+    private static final class Stock {
+        final ItemKey key;
+        long count;
+        final LongArrayList locations = new LongArrayList(4);
+
+        Stock(ItemKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.sophisticatedcooking.common.inventory;
+
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraftforge.items.ItemHandlerHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多种材料的批量提取计划
+ * 对聚合库存的物品索引只遍历一次收集每种材料的候选物品，由 IngredientMatcher 为整张材料表（乘以制作次数）分配物品；
+ * 先确认整个计划可以满足，再一次性执行提取，不满足时不修改任何容器。
+ */
+public class ExtractionPlanner {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * 为材料表计算提取计划；同一个 Ingredient 实例出现多次时合并数量
+     * 每个位置按 1 个物品计算，乘以 times（批量制作次数）。
+     */
+    public static Plan plan(AggregatedItemHandler inventory, List<Ingredient> ingredients, int times) {
+        Map<Ingredient, Requirement> merged = new IdentityHashMap<>();
+        List<Requirement> requirements = new ArrayList<>();
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient == null || ingredient.isEmpty()) continue;
+
+            Requirement requirement = merged.get(ingredient);
+            if (requirement == null) {
+                requirement = new Requirement(ingredient, requirements.size());
+                merged.put(ingredient, requirement);
+                requirements.add(requirement);
+            }
+            requirement.needed += Math.max(times, 0);
+        }
+
+        IngredientMatcher matcher = new IngredientMatcher();
+        for (Requirement requirement : requirements) {
+            matcher.addRequirement(requirement.ingredient, requirement.needed);
+        }
+        for (ItemKey key : inventory.getStockedItems()) {
+            long available = inventory.getCount(key);
+            if (available <= 0) continue;
+
+            ItemStack template = key.asTemplate();
+            for (Requirement requirement : requirements) {
+                if (requirement.ingredient.test(template)) {
+                    matcher.addCandidate(requirement.index, key, available);
+                }
+            }
+        }
+        matcher.solve();
+
+        Map<ItemKey, Long> allocations = new LinkedHashMap<>();
+        for (Requirement requirement : requirements) {
+            requirement.allocated = matcher.getAllocated(requirement.index);
+            requirement.sources = matcher.getSources(requirement.index);
+            requirement.sources.forEach((key, amount) -> allocations.merge(key, amount, Long::sum));
+        }
+        return new Plan(inventory, requirements, allocations);
+    }
+
+    /**
+     * 计算并执行提取计划；材料不足时返回 null，容器内容保持不变
+     */
+    public static List<ItemStack> extractAll(AggregatedItemHandler inventory, List<Ingredient> ingredients, int times) {
+        Plan plan = plan(inventory, ingredients, times);
+        return plan.isSatisfiable() ? plan.execute() : null;
+    }
+
+    private static final class Requirement {
+        final Ingredient ingredient;
+        final int index;
+        Map<ItemKey, Long> sources = Collections.emptyMap();
+        long needed;
+        long allocated;
+
+        Requirement(Ingredient ingredient, int index) {
+            this.ingredient = ingredient;
+            this.index = index;
+        }
+    }
+
+    public static final class Plan {
+        private final AggregatedItemHandler inventory;
+        private final List<Requirement> requirements;
+        private final Map<ItemKey, Long> allocations;
+        private boolean executed;
+
+        private Plan(AggregatedItemHandler inventory, List<Requirement> requirements, Map<ItemKey, Long> allocations) {
+            this.inventory = inventory;
+            this.requirements = requirements;
+            this.allocations = allocations;
+        }
+
+        public boolean isSatisfiable() {
+            for (Requirement requirement : requirements) {
+                if (requirement.allocated < requirement.needed) return false;
+            }
+            return true;
+        }
+
+        /**
+         * 无法满足的材料（按合并后的顺序）
+         */
+        public List<Ingredient> getMissing() {
+            List<Ingredient> missing = new ArrayList<>();
+            for (Requirement requirement : requirements) {
+                if (requirement.allocated < requirement.needed) {
+                    missing.add(requirement.ingredient);
+                }
+            }
+            return missing;
+        }
+
+        /**
+         * 每种物品计划提取的总数量（只读）
+         */
+        public Map<ItemKey, Long> getAllocations() {
+            return Collections.unmodifiableMap(allocations);
+        }
+
+        /**
+         * 执行提取：先模拟确认每种物品都能取到计划数量（索引可能因外部修改而过期），全部满足后才真正提取
+         * 返回按材料顺序排列、不超过最大堆叠数的物品栈；计划不满足或模拟失败时返回 null。
+         * 真正提取的数量少于模拟结果时（处理器的模拟不可靠），把已取出的物品放回聚合库存并返回 null，不会交出不完整的材料。
+         */
+        public List<ItemStack> execute() {
+            if (executed) {
+                throw new IllegalStateException("Extraction plan has already been executed");
+            }
+            if (!isSatisfiable()) return null;
+
+            for (Map.Entry<ItemKey, Long> allocation : allocations.entrySet()) {
+                if (extract(allocation.getKey(), allocation.getValue(), true) < allocation.getValue()) {
+                    inventory.invalidate();
+                    return null;
+                }
+            }
+            executed = true;
+
+            List<ItemStack> results = new ArrayList<>();
+            for (Requirement requirement : requirements) {
+                for (Map.Entry<ItemKey, Long> source : requirement.sources.entrySet()) {
+                    long extracted = extract(source.getKey(), source.getValue(), false);
+                    addStacks(results, source.getKey(), extracted);
+                    if (extracted < source.getValue()) {
+                        rollback(results);
+                        return null;
+                    }
+                }
+            }
+            return results;
+        }
+
+        /**
+         * 把已取出的物品放回聚合库存；刚取出的位置仍然空着，放不回只会发生在其他逻辑同时填满了容器时
+         */
+        private void rollback(List<ItemStack> extracted) {
+            inventory.invalidate();
+            int lost = 0;
+            for (ItemStack stack : extracted) {
+                ItemStack remainder = ItemHandlerHelper.insertItemStacked(inventory, stack, false);
+                lost += remainder.getCount();
+            }
+            if (lost > 0) {
+                LOGGER.error("Extraction rollback could not return {} items to the kitchen containers", lost);
+            }
+        }
+
+        private long extract(ItemKey key, long amount, boolean simulate) {
+            return inventory.extract(key, (int) Math.min(amount, Integer.MAX_VALUE), simulate).getCount();
+        }
+
+        private static void addStacks(List<ItemStack> results, ItemKey key, long amount) {
+            int maxStackSize = Math.max(key.asTemplate().getMaxStackSize(), 1);
+            while (amount > 0) {
+                int count = (int) Math.min(amount, maxStackSize);
+                results.add(key.toStack(count));
+                amount -= count;
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.sophisticatedcooking.common.inventory;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.world.item.crafting.Ingredient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 材料与库存物品之间的数量分配（二分图最大流）
+ * 一种物品可满足多种材料、一种材料又有多种候选物品时，按顺序贪心分配可能让宽泛材料占用专用材料唯一可用的物品。
+ * 这里把 材料（需要数量）→ 候选物品（库存数量）建成二分图，先贪心分配，再用 Edmonds-Karp 增广路调整，
+ * 只要存在满足全部材料的分配就一定能找到。实例可通过 clear 重复使用；非线程安全。
+ */
+public final class IngredientMatcher {
+    private final List<Ingredient> ingredients = new ArrayList<>();
+    private final LongArrayList needed = new LongArrayList();
+    private final List<IntArrayList> requirementEdges = new ArrayList<>();
+
+    private final List<ItemKey> items = new ArrayList<>();
+    private final LongArrayList available = new LongArrayList();
+    private final Object2IntOpenHashMap<ItemKey> itemIndices = new Object2IntOpenHashMap<>();
+    private final List<IntArrayList> itemEdges = new ArrayList<>();
+
+    // 材料 → 物品的边：起点材料、终点物品、已分配数量
+    private final IntArrayList edgeRequirement = new IntArrayList();
+    private final IntArrayList edgeItem = new IntArrayList();
+    private final LongArrayList edgeFlow = new LongArrayList();
+
+    private long[] requirementFlow = new long[0];
+    private long[] itemFlow = new long[0];
+
+    public IngredientMatcher() {
+        itemIndices.defaultReturnValue(-1);
+    }
+
+    /**
+     * 添加一项需要 amount 个物品的材料，返回其序号
+     */
+    public int addRequirement(Ingredient ingredient, long amount) {
+        ingredients.add(ingredient);
+        needed.add(Math.max(amount, 0));
+        requirementEdges.add(new IntArrayList(4));
+        return ingredients.size() - 1;
+    }
+
+    /**
+     * 物品 key（库存 available 个）可以满足材料 requirement；同一物品的库存数量以第一次添加时为准
+     */
+    public void addCandidate(int requirement, ItemKey key, long available) {
+        if (available <= 0 || needed.getLong(requirement) <= 0) return;
+
+        int item = itemIndices.getInt(key);
+        if (item < 0) {
+            item = items.size();
+            items.add(key);
+            this.available.add(available);
+            itemIndices.put(key, item);
+            itemEdges.add(new IntArrayList(2));
+        }
+
+        int edge = edgeFlow.size();
+        edgeRequirement.add(requirement);
+        edgeItem.add(item);
+        edgeFlow.add(0L);
+        requirementEdges.get(requirement).add(edge);
+        itemEdges.get(item).add(edge);
+    }
+
+    /**
+     * 计算分配；全部材料都能满足时返回 true
+     */
+    public boolean solve() {
+        requirementFlow = new long[ingredients.size()];
+        itemFlow = new long[items.size()];
+        for (int edge = 0; edge < edgeFlow.size(); edge++) {
+            edgeFlow.set(edge, 0L);
+        }
+
+        greedy();
+        // 每条增广路都使总分配数量增加；Edmonds-Karp 的增广次数与数量无关，只与点数、边数有关
+        while (!isSatisfied()) {
+            if (!augment()) return false;
+        }
+        return true;
+    }
+
+    public boolean isSatisfied() {
+        for (int requirement = 0; requirement < requirementFlow.length; requirement++) {
+            if (requirementFlow[requirement] < needed.getLong(requirement)) return false;
+        }
+        return true;
+    }
+
+    public Ingredient getIngredient(int requirement) {
+        return ingredients.get(requirement);
+    }
+
+    public int getRequirementCount() {
+        return ingredients.size();
+    }
+
+    /**
+     * 材料已分配到的数量
+     */
+    public long getAllocated(int requirement) {
+        return requirementFlow[requirement];
+    }
+
+    /**
+     * 材料分配到的物品及数量（按添加候选的顺序）
+     */
+    public Map<ItemKey, Long> getSources(int requirement) {
+        Map<ItemKey, Long> sources = new LinkedHashMap<>();
+        IntArrayList edges = requirementEdges.get(requirement);
+        for (int i = 0; i < edges.size(); i++) {
+            int edge = edges.getInt(i);
+            long flow = edgeFlow.getLong(edge);
+            if (flow > 0) {
+                sources.merge(items.get(edgeItem.getInt(edge)), flow, Long::sum);
+            }
+        }
+        return sources;
+    }
+
+    public void clear() {
+        ingredients.clear();
+        needed.clear();
+        requirementEdges.clear();
+        items.clear();
+        available.clear();
+        itemIndices.clear();
+        itemEdges.clear();
+        edgeRequirement.clear();
+        edgeItem.clear();
+        edgeFlow.clear();
+        requirementFlow = new long[0];
+        itemFlow = new long[0];
+    }
+
+    /**
+     * 初始分配：候选物品越少的材料越先分配；大多数配方在这一步就已满足，不需要增广
+     */
+    private void greedy() {
+        Integer[] order = new Integer[ingredients.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(requirementEdges.get(a).size(), requirementEdges.get(b).size()));
+
+        for (int requirement : order) {
+            IntArrayList edges = requirementEdges.get(requirement);
+            for (int i = 0; i < edges.size() && requirementFlow[requirement] < needed.getLong(requirement); i++) {
+                int edge = edges.getInt(i);
+                int item = edgeItem.getInt(edge);
+                long amount = Math.min(needed.getLong(requirement) - requirementFlow[requirement], available.getLong(item) - itemFlow[item]);
+                if (amount > 0) {
+                    push(edge, amount);
+                    requirementFlow[requirement] += amount;
+                    itemFlow[item] += amount;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在残量图上找一条 源 → 有缺口的材料 → … → 有余量的物品 → 汇 的最短增广路并推流；找不到时返回 false
+     * 节点编号：材料 r 为 r，物品 i 为 材料数 + i。材料 → 物品 的边容量不限，物品 → 材料 的反向边容量为已分配数量。
+     */
+    private boolean augment() {
+        int requirements = ingredients.size();
+        int[] parentEdge = new int[requirements + items.size()];
+        Arrays.fill(parentEdge, -2);
+        int[] queue = new int[parentEdge.length];
+        int head = 0;
+        int tail = 0;
+
+        for (int requirement = 0; requirement < requirements; requirement++) {
+            if (requirementFlow[requirement] < needed.getLong(requirement)) {
+                parentEdge[requirement] = -1;
+                queue[tail++] = requirement;
+            }
+        }
+
+        while (head < tail) {
+            int node = queue[head++];
+            if (node < requirements) {
+                IntArrayList edges = requirementEdges.get(node);
+                for (int i = 0; i < edges.size(); i++) {
+                    int edge = edges.getInt(i);
+                    int item = edgeItem.getInt(edge);
+                    int itemNode = requirements + item;
+                    if (parentEdge[itemNode] != -2) continue;
+
+                    parentEdge[itemNode] = edge;
+                    if (itemFlow[item] < available.getLong(item)) {
+                        apply(item, parentEdge, requirements);
+                        return true;
+                    }
+                    queue[tail++] = itemNode;
+                }
+            } else {
+                IntArrayList edges = itemEdges.get(node - requirements);
+                for (int i = 0; i < edges.size(); i++) {
+                    int edge = edges.getInt(i);
+                    int requirement = edgeRequirement.getInt(edge);
+                    if (parentEdge[requirement] != -2 || edgeFlow.getLong(edge) <= 0) continue;
+
+                    parentEdge[requirement] = edge;
+                    queue[tail++] = requirement;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 沿 parentEdge 从物品 item 回溯到起始材料，按路径上的最小残量推流
+     */
+    private void apply(int item, int[] parentEdge, int requirements) {
+        long amount = available.getLong(item) - itemFlow[item];
+        int node = requirements + item;
+        int start;
+        while (true) {
+            int edge = parentEdge[node];
+            int requirement = edgeRequirement.getInt(edge);
+            int back = parentEdge[requirement];
+            if (back == -1) {
+                amount = Math.min(amount, needed.getLong(requirement) - requirementFlow[requirement]);
+                start = requirement;
+                break;
+            }
+            amount = Math.min(amount, edgeFlow.getLong(back));
+            node = requirements + edgeItem.getInt(back);
+        }
+
+        node = requirements + item;
+        while (true) {
+            int edge = parentEdge[node];
+            push(edge, amount);
+            int back = parentEdge[edgeRequirement.getInt(edge)];
+            if (back == -1) break;
+            push(back, -amount);
+            node = requirements + edgeItem.getInt(back);
+        }
+        requirementFlow[start] += amount;
+        itemFlow[item] += amount;
+    }
+
+    private void push(int edge, long amount) {
+        edgeFlow.set(edge, edgeFlow.getLong(edge) + amount);
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.sophisticatedcooking.common.inventory;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.scheduler.BridgeScheduler;
+import com.example.sophisticatedcooking.common.scheduler.TaskPriority;
+import com.example.sophisticatedcooking.common.trace.BridgeTrace;
+import com.example.sophisticatedcooking.common.trace.TraceEvent;
+import com.example.sophisticatedcooking.integration.SSApi;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * 已发现容器的槽位级变化跟踪
+ * 每个容器保存一份槽位快照；精妙存储的物品栏变化通知只把槽位标记为脏，在 tick 结束时与快照比较，
+ * 把 (之前, 之后) 的差异交给下游（聚合库存、配方可用性等）增量更新。没有变化的容器每 tick 没有任何开销。
+ * 无法挂上通知的容器按 inventorySampleInterval 低频比较快照，比较作为可分段任务交给 BridgeScheduler，
+ * 容器很多时摊到多个 tick 完成。只在服务端主线程访问。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class InventoryChangeTracker {
+    private static final Map<IItemHandler, TrackedContainer> TRACKED = new IdentityHashMap<>();
+    private static final Set<TrackedContainer> CHANGED = new LinkedHashSet<>();
+    private static final List<SlotChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static final LongAdder DELTAS = new LongAdder();
+    private static final BridgeScheduler.Task SAMPLE_TASK = new BridgeScheduler.Task() {
+        @Override
+        public boolean run(long deadline) {
+            return sampleUnhooked(deadline);
+        }
+
+        @Override
+        public void close() {
+            sampling = null;
+            samplingCursor = 0;
+            ticksSinceSample = 0;
+        }
+    };
+    private static int ticksSinceSample = 0;
+    private static long tick = 0;
+    // 进行中的采样：开始时截取的未挂通知容器与下一个要比较的位置
+    private static TrackedContainer[] sampling = null;
+    private static int samplingCursor = 0;
+
+    public static void addListener(SlotChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * 开始跟踪容器；已跟踪的处理器直接返回
+     */
+    public static void track(BlockEntity blockEntity, IItemHandler handler) {
+        Level level = blockEntity.getLevel();
+        if (level == null || level.isClientSide || handler == null || TRACKED.containsKey(handler)) {
+            return;
+        }
+
+        TrackedContainer tracked = new TrackedContainer(handler, level.dimension());
+        TRACKED.put(handler, tracked);
+        tracked.hookedInventory = SSApi.addContentsListener(blockEntity, tracked.hook);
+        tracked.hooked = tracked.hookedInventory != null;
+
+        // 物品能力失效（方块被破坏、升级替换等）时停止跟踪
+        LazyOptional<IItemHandler> capability = blockEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY);
+        if (capability.isPresent()) {
+            capability.addListener(invalidated -> untrack(tracked));
+        }
+    }
+
+    /**
+     * 跟踪不属于方块实体的处理器（例如玩家携带的背包），需由调用方 untrack
+     * inventory 为处理器背后的 sophisticatedcore 物品栏时挂上其变化通知，为 null 或挂不上时低频采样。
+     */
+    public static void track(IItemHandler handler, ResourceKey<Level> dimension, Object inventory) {
+        if (handler == null || TRACKED.containsKey(handler)) {
+            return;
+        }
+
+        TrackedContainer tracked = new TrackedContainer(handler, dimension);
+        TRACKED.put(handler, tracked);
+        if (SSApi.addInventoryContentsListener(inventory, tracked.hook)) {
+            tracked.hookedInventory = inventory;
+            tracked.hooked = true;
+        }
+    }
+
+    public static void untrack(IItemHandler handler) {
+        TrackedContainer tracked = TRACKED.get(handler);
+        if (tracked != null) {
+            untrack(tracked);
+        }
+    }
+
+    public static boolean isTracked(IItemHandler handler) {
+        return TRACKED.containsKey(handler);
+    }
+
+    /**
+     * 是否通过精妙存储的变化通知跟踪（否则为低频采样）
+     */
+    public static boolean isHooked(IItemHandler handler) {
+        TrackedContainer tracked = TRACKED.get(handler);
+        return tracked != null && tracked.hooked;
+    }
+
+    /**
+     * 立即比较单个槽位并分发差异；用于桥接自身的插入/提取，让下游在同一 tick 内看到变化
+     * 处理器未被跟踪时返回 false。
+     */
+    public static boolean flushSlot(IItemHandler handler, int slot) {
+        TrackedContainer tracked = TRACKED.get(handler);
+        if (tracked == null) return false;
+
+        tracked.compare(slot);
+        return true;
+    }
+
+    /**
+     * 分发所有被标记为脏的槽位的差异
+     */
+    public static void flush() {
+        if (CHANGED.isEmpty()) return;
+
+        List<TrackedContainer> changed = new ArrayList<>(CHANGED);
+        CHANGED.clear();
+        for (TrackedContainer tracked : changed) {
+            tracked.flushDirty();
+        }
+    }
+
+    private static void untrack(TrackedContainer tracked) {
+        tracked.detach();
+        TRACKED.remove(tracked.handler, tracked);
+        CHANGED.remove(tracked);
+    }
+
+    /**
+     * 比较所有未挂上通知的容器的全部槽位；超过 deadline 时让出，下一段从断点继续
+     * 每段至少比较一个容器，全部比较完时返回 true。
+     */
+    private static boolean sampleUnhooked(long deadline) {
+        if (sampling == null) {
+            sampling = TRACKED.values().stream().filter(tracked -> !tracked.hooked).toArray(TrackedContainer[]::new);
+            samplingCursor = 0;
+        }
+
+        while (samplingCursor < sampling.length) {
+            TrackedContainer tracked = sampling[samplingCursor];
+            sampling[samplingCursor++] = null;
+
+            // 跳过截取之后停止跟踪的容器
+            if (!tracked.removed) {
+                int slots = tracked.handler.getSlots();
+                for (int slot = 0; slot < slots; slot++) {
+                    tracked.compare(slot);
+                }
+            }
+
+            if (samplingCursor < sampling.length && System.nanoTime() >= deadline) {
+                return false;
+            }
+        }
+        sampling = null;
+        return true;
+    }
+
+    public static int size() {
+        return TRACKED.size();
+    }
+
+    /**
+     * 挂上变化通知的容器数量；其余容器按 inventorySampleInterval 采样
+     */
+    public static int getHookedCount() {
+        int hooked = 0;
+        for (TrackedContainer tracked : TRACKED.values()) {
+            if (tracked.hooked) hooked++;
+        }
+        return hooked;
+    }
+
+    public static long getDeltaCount() {
+        return DELTAS.sum();
+    }
+
+    /**
+     * 服务端 tick 计数；下游据此把逐槽校验限制为每 tick 一次
+     */
+    public static long getTick() {
+        return tick;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+
+        tick++;
+        flush();
+
+        int interval = Config.getInventorySampleInterval();
+        if (interval > 0 && ++ticksSinceSample >= interval) {
+            ticksSinceSample = 0;
+            BridgeScheduler.submit(TaskPriority.MAINTENANCE, SAMPLE_TASK);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof Level level && !level.isClientSide) {
+            Iterator<TrackedContainer> iterator = TRACKED.values().iterator();
+            while (iterator.hasNext()) {
+                TrackedContainer tracked = iterator.next();
+                if (tracked.dimension == level.dimension()) {
+                    tracked.detach();
+                    CHANGED.remove(tracked);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 槽位变化的下游；before/after 为只读快照，不得修改
+     */
+    @FunctionalInterface
+    public interface SlotChangeListener {
+        void onSlotChanged(IItemHandler handler, int slot, ItemStack before, ItemStack after);
+    }
+
+    private static final class TrackedContainer {
+        final IItemHandler handler;
+        final ResourceKey<Level> dimension;
+        final IntOpenHashSet dirtySlots = new IntOpenHashSet();
+        ItemStack[] snapshot;
+        final IntConsumer hook = this::markDirty;
+        Object hookedInventory;
+        boolean hooked;
+        boolean removed;
+
+        TrackedContainer(IItemHandler handler, ResourceKey<Level> dimension) {
+            this.handler = handler;
+            this.dimension = dimension;
+            this.snapshot = new ItemStack[handler.getSlots()];
+            for (int slot = 0; slot < snapshot.length; slot++) {
+                snapshot[slot] = handler.getStackInSlot(slot).copy();
+            }
+        }
+
+        private void markDirty(int slot) {
+            if (!removed) {
+                dirtySlots.add(slot);
+                CHANGED.add(this);
+            }
+        }
+
+        /**
+         * 停止跟踪，并从精妙存储物品栏的分发器上取下自己的通知
+         */
+        void detach() {
+            removed = true;
+            if (hookedInventory != null) {
+                SSApi.removeContentsListener(hookedInventory, hook);
+                hookedInventory = null;
+            }
+        }
+
+        void flushDirty() {
+            IntIterator iterator = dirtySlots.iterator();
+            while (iterator.hasNext()) {
+                compare(iterator.nextInt());
+            }
+            dirtySlots.clear();
+        }
+
+        /**
+         * 与快照比较一个槽位，有差异时更新快照并通知下游
+         */
+        void compare(int slot) {
+            if (removed || slot < 0) return;
+
+            // 升级可能改变槽位数量
+            if (slot >= snapshot.length) {
+                int oldLength = snapshot.length;
+                snapshot = Arrays.copyOf(snapshot, Math.max(handler.getSlots(), slot + 1));
+                Arrays.fill(snapshot, oldLength, snapshot.length, ItemStack.EMPTY);
+            }
+
+            ItemStack before = snapshot[slot];
+            ItemStack current = slot < handler.getSlots() ? handler.getStackInSlot(slot) : ItemStack.EMPTY;
+            if (ItemStack.matches(before, current)) return;
+
+            ItemStack after = current.copy();
+            snapshot[slot] = after;
+            DELTAS.increment();
+            BridgeTrace.record(TraceEvent.SLOT_DELTA, slot, before.getCount(), after.getCount());
+            for (SlotChangeListener listener : LISTENERS) {
+                listener.onSlotChanged(handler, slot, before, after);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.sophisticatedcooking.common.inventory;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongMaps;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一组容器的物品数量汇总：物品 + NBT → 总数量
+ * 物品经 ItemInterner 驻留为整数 ID，数量保存在原始类型的 int → long 开放寻址表中，没有装箱。
+ * 每个槽位记住上一次见到的物品栈实例与其 NBT 实例，二者都没变时直接复用 ID，不再计算 NBT 哈希；
+ * 实例由调用方长期持有并重复 aggregate，槽位内容与容器列表都没变时逐槽汇总本身不分配对象；
+ * 容器列表变化（修剪槽位缓存）、新物品第一次驻留、数量表或槽位缓存扩容时仍会分配。
+ * 原地修改物品栈 NBT（不替换标签对象）的容器需要先调用 invalidate。只在服务端主线程使用（见 ItemInterner）。
+ */
+public final class ItemCountAggregator {
+    private final Int2LongOpenHashMap counts = new Int2LongOpenHashMap();
+    private final Int2LongMap readOnlyCounts = Int2LongMaps.unmodifiable(counts);
+    private final Map<IItemHandler, SlotCache> slotCaches = new IdentityHashMap<>();
+    private List<IItemHandler> lastHandlers = null;
+    private int generation = -1;
+
+    /**
+     * 重新汇总 handlers 中所有槽位的数量，返回自身
+     */
+    public ItemCountAggregator aggregate(List<IItemHandler> handlers) {
+        if (handlers != lastHandlers) {
+            pruneSlotCaches(handlers);
+            lastHandlers = handlers;
+        }
+
+        // 汇总过程中 ID 表达到上限被清空时，结果混用了两代 ID，用新一代重新汇总一次
+        if (!collect(handlers)) {
+            collect(handlers);
+        }
+        return this;
+    }
+
+    /**
+     * 汇总一次；期间 ItemInterner 没有被清空时返回 true
+     */
+    private boolean collect(List<IItemHandler> handlers) {
+        int currentGeneration = ItemInterner.getGeneration();
+        if (currentGeneration != generation) {
+            slotCaches.clear();
+            generation = currentGeneration;
+        }
+
+        counts.clear();
+        for (int i = 0; i < handlers.size(); i++) {
+            IItemHandler handler = handlers.get(i);
+            SlotCache cache = slotCaches.get(handler);
+            if (cache == null) {
+                cache = new SlotCache();
+                slotCaches.put(handler, cache);
+            }
+
+            int slots = handler.getSlots();
+            cache.ensureCapacity(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                ItemStack stack = handler.getStackInSlot(slot);
+                if (stack.isEmpty()) continue;
+
+                int id;
+                CompoundTag tag = stack.getTag();
+                if (cache.stacks[slot] == stack && cache.tags[slot] == tag) {
+                    id = cache.ids[slot];
+                } else {
+                    id = ItemInterner.intern(stack);
+                    cache.stacks[slot] = stack;
+                    cache.tags[slot] = tag;
+                    cache.ids[slot] = id;
+                }
+                counts.addTo(id, stack.getCount());
+            }
+        }
+
+        return ItemInterner.getGeneration() == generation;
+    }
+
+    /**
+     * 丢弃槽位缓存，下一次汇总时重新驻留所有物品栈
+     */
+    public void invalidate() {
+        slotCaches.clear();
+    }
+
+    public long getCount(int id) {
+        return counts.get(id);
+    }
+
+    /**
+     * 物品（含 NBT）的总数量；从未出现过的物品为 0
+     */
+    public long getCount(ItemStack stack) {
+        // ID 表在上一次汇总之后被清空时，新的 ID 与本次结果不对应
+        if (stack.isEmpty() || ItemInterner.getGeneration() != generation) return 0;
+        int id = ItemInterner.lookup(stack);
+        return id < 0 ? 0 : counts.get(id);
+    }
+
+    /**
+     * ID → 数量（只读，下一次 aggregate 时原地更新）；ID 通过 ItemInterner.getKey 还原为物品
+     */
+    public Int2LongMap getCounts() {
+        return readOnlyCounts;
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    private void pruneSlotCaches(List<IItemHandler> handlers) {
+        if (slotCaches.isEmpty()) return;
+
+        Map<IItemHandler, Boolean> current = new IdentityHashMap<>(handlers.size());
+        for (IItemHandler handler : handlers) {
+            current.put(handler, Boolean.TRUE);
+        }
+        slotCaches.keySet().removeIf(handler -> !current.containsKey(handler));
+    }
+
+    private static final class SlotCache {
+        ItemStack[] stacks = new ItemStack[0];
+        CompoundTag[] tags = new CompoundTag[0];
+        int[] ids = new int[0];
+
+        void ensureCapacity(int slots) {
+            if (slots > ids.length) {
+                stacks = Arrays.copyOf(stacks, slots);
+                tags = Arrays.copyOf(tags, slots);
+                ids = Arrays.copyOf(ids, slots);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.sophisticatedcooking.common.inventory;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 物品 + NBT 组合到紧凑整数 ID 的驻留表
+ * 无 NBT 的物品按物品实例查找，不计算哈希之外的任何东西；带 NBT 的物品直接用物品栈查询自定义哈希表，查询不分配对象。
+ * ID 从 0 开始连续分配；超过 MAX_IDS 或服务端停止时整体清空并递增代号，持有 ID 的调用方按代号判断是否需要丢弃。
+ * 只在服务端主线程访问，不加锁；服务端运行时从其他线程查询或驻留会抛出 IllegalStateException。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public final class ItemInterner {
+    private static final int MAX_IDS = 1 << 16;
+
+    private static final Hash.Strategy<ItemStack> ITEM_AND_TAG = new Hash.Strategy<>() {
+        @Override
+        public int hashCode(ItemStack stack) {
+            return stack == null ? 0 : 31 * System.identityHashCode(stack.getItem()) + Objects.hashCode(stack.getTag());
+        }
+
+        @Override
+        public boolean equals(ItemStack a, ItemStack b) {
+            if (a == b) return true;
+            if (a == null || b == null) return false;
+            return a.getItem() == b.getItem() && Objects.equals(a.getTag(), b.getTag());
+        }
+    };
+
+    private static final Reference2IntOpenHashMap<Item> UNTAGGED = new Reference2IntOpenHashMap<>();
+    private static final Object2IntOpenCustomHashMap<ItemStack> TAGGED = new Object2IntOpenCustomHashMap<>(ITEM_AND_TAG);
+    private static final List<ItemKey> KEYS = new ArrayList<>();
+    private static int generation = 0;
+    private static int resets = 0;
+
+    static {
+        UNTAGGED.defaultReturnValue(-1);
+        TAGGED.defaultReturnValue(-1);
+    }
+
+    private ItemInterner() {
+    }
+
+    /**
+     * 物品栈（非空）对应的 ID，第一次出现时分配
+     */
+    public static int intern(ItemStack stack) {
+        int id = lookup(stack);
+        if (id >= 0) return id;
+
+        if (KEYS.size() >= MAX_IDS) {
+            reset();
+        }
+
+        id = KEYS.size();
+        KEYS.add(ItemKey.of(stack));
+        if (stack.getTag() == null) {
+            UNTAGGED.put(stack.getItem(), id);
+        } else {
+            // 保存副本作为键，避免原物品栈之后被修改
+            TAGGED.put(ItemHandlerHelper.copyStackWithSize(stack, 1), id);
+        }
+        return id;
+    }
+
+    /**
+     * 物品栈对应的 ID；尚未驻留时返回 -1
+     */
+    public static int lookup(ItemStack stack) {
+        checkThread();
+        return stack.getTag() == null ? UNTAGGED.getInt(stack.getItem()) : TAGGED.getInt(stack);
+    }
+
+    public static ItemKey getKey(int id) {
+        checkThread();
+        return KEYS.get(id);
+    }
+
+    /**
+     * 当前代号；清空后递增，之前分配的 ID 全部失效
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    public static int size() {
+        return KEYS.size();
+    }
+
+    public static int getResets() {
+        return resets;
+    }
+
+    public static void reset() {
+        checkThread();
+        UNTAGGED.clear();
+        TAGGED.clear();
+        KEYS.clear();
+        resets++;
+        generation++;
+    }
+
+    private static void checkThread() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null && !server.isSameThread()) {
+            throw new IllegalStateException("ItemInterner accessed off the server thread: " + Thread.currentThread().getName());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        reset();
+    }
+}
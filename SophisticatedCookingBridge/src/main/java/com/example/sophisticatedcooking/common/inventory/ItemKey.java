@@ -0,0 +1,87 @@
+package com.example.sophisticatedcooking.common.inventory;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Objects;
+
+/**
+ * 物品 + NBT 组合键，用于按物品聚合库存
+ */
+public final class ItemKey {
+    private final Item item;
+    private final CompoundTag tag;
+    private final int hash;
+    private ItemStack template;
+
+    private ItemKey(Item item, CompoundTag tag) {
+        this.item = item;
+        this.tag = tag;
+        this.hash = 31 * System.identityHashCode(item) + (tag == null ? 0 : tag.hashCode());
+    }
+
+    /**
+     * 创建可长期保存的键（复制 NBT，避免物品栈之后被修改影响键）
+     */
+    public static ItemKey of(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        return new ItemKey(stack.getItem(), tag == null ? null : tag.copy());
+    }
+
+    /**
+     * 创建只用于查询的临时键（不复制 NBT），不要保存到集合中
+     */
+    public static ItemKey lookup(ItemStack stack) {
+        return new ItemKey(stack.getItem(), stack.getTag());
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public CompoundTag getTag() {
+        return tag;
+    }
+
+    public boolean matches(ItemStack stack) {
+        return !stack.isEmpty() && stack.getItem() == item && Objects.equals(tag, stack.getTag());
+    }
+
+    /**
+     * 数量为 1 的共享物品栈，只用于 Ingredient.test、最大堆叠数等只读判断
+     * 返回的实例在同一个键的所有调用方之间共享：调用方与它传入的判断都不得修改其数量或 NBT，
+     * 需要交给容器、玩家或其他模组的物品栈请使用 toStack。数量被改动过时会重新创建，但 NBT 的改动无法察觉。
+     */
+    public ItemStack asTemplate() {
+        if (template == null || template.getCount() != 1) {
+            template = toStack(1);
+        }
+        return template;
+    }
+
+    public ItemStack toStack(int count) {
+        ItemStack stack = new ItemStack(item, count);
+        if (tag != null) {
+            stack.setTag(tag.copy());
+        }
+        return stack;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemKey other)) return false;
+        return item == other.item && hash == other.hash && Objects.equals(tag, other.tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return tag == null ? String.valueOf(item) : item + tag.toString();
+    }
+}
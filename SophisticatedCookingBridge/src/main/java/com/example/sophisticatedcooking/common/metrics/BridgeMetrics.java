@@ -0,0 +1,318 @@
+package com.example.sophisticatedcooking.common.metrics;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.cache.KitchenContainerCache;
+import com.example.sophisticatedcooking.common.cache.KitchenMembershipCache;
+import com.example.sophisticatedcooking.common.cache.PlayerBackpackCache;
+import com.example.sophisticatedcooking.common.discovery.RegionDiscovery;
+import com.example.sophisticatedcooking.common.inventory.InventoryChangeTracker;
+import com.example.sophisticatedcooking.common.inventory.ItemInterner;
+import com.example.sophisticatedcooking.common.network.KitchenInventorySync;
+import com.example.sophisticatedcooking.common.recipe.RecipeAvailability;
+import com.example.sophisticatedcooking.common.scheduler.BridgeScheduler;
+import com.example.sophisticatedcooking.common.scheduler.TaskPriority;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 桥接模组的运行时指标
+ * 记录路径只使用 LongAdder 与无锁直方图，可在生产环境常开；通过 /sophisticatedcooking stats 查看，
+ * 或按 metricsDumpInterval 定期追加到 logs/sophisticatedcooking-metrics.log。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class BridgeMetrics {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int MAX_TRACKED_KITCHENS = 1024;
+    private static final int TOP_KITCHENS = 5;
+    private static final String DUMP_FILE = "sophisticatedcooking-metrics.log";
+
+    private static final LongAdder DISCOVERY_CALLS = new LongAdder();
+    private static final Log2Histogram DISCOVERY_NANOS = new Log2Histogram();
+    private static final Log2Histogram DISCOVERY_PROBED = new Log2Histogram();
+    private static final Log2Histogram DISCOVERY_FOUND = new Log2Histogram();
+    private static final LongAdder DISCOVERY_DEDUPLICATED = new LongAdder();
+
+    private static final LongAdder PROVIDER_CALLS = new LongAdder();
+    private static final LongAdder PROVIDER_PROVIDED = new LongAdder();
+    private static final LongAdder PROVIDER_ERRORS = new LongAdder();
+    private static final Log2Histogram PROVIDER_NANOS = new Log2Histogram();
+
+    private static final LongAdder REFLECTION_FAILURES = new LongAdder();
+
+    private static final LongAdder ASYNC_SUBMITTED = new LongAdder();
+    private static final LongAdder ASYNC_COMMITTED = new LongAdder();
+    private static final Log2Histogram ASYNC_SNAPSHOT_SIZE = new Log2Histogram();
+
+    // 按厨房统计发现开销；超过上限后新的厨房只计入 UNTRACKED_KITCHEN_CALLS，维度卸载时移除该维度的条目
+    private static final Map<KitchenKey, KitchenStats> KITCHENS = new ConcurrentHashMap<>();
+    private static final LongAdder UNTRACKED_KITCHEN_CALLS = new LongAdder();
+
+    private static volatile long startedAt = System.currentTimeMillis();
+    private static final BridgeScheduler.Task DUMP_TASK = BridgeScheduler.once(BridgeMetrics::dump);
+    private static int ticksSinceDump = 0;
+
+    public static boolean isEnabled() {
+        return Config.isMetricsEnabled();
+    }
+
+    /**
+     * 计时起点；指标关闭时返回 0，对应的 record 方法会忽略这次调用
+     */
+    public static long startTimer() {
+        return isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 记录一次容器发现：耗时、探测的方块（实体）数量与找到的容器数量
+     */
+    public static void recordDiscovery(ResourceKey<Level> dimension, long origin, long startNanos, int probed, int found) {
+        if (startNanos == 0L) return;
+
+        long nanos = System.nanoTime() - startNanos;
+        DISCOVERY_CALLS.increment();
+        DISCOVERY_NANOS.record(nanos);
+        DISCOVERY_PROBED.record(probed);
+        DISCOVERY_FOUND.record(found);
+
+        KitchenKey key = new KitchenKey(dimension, origin);
+        KitchenStats stats = KITCHENS.get(key);
+        if (stats == null) {
+            if (KITCHENS.size() >= MAX_TRACKED_KITCHENS) {
+                UNTRACKED_KITCHEN_CALLS.increment();
+                return;
+            }
+            stats = KITCHENS.computeIfAbsent(key, k -> new KitchenStats());
+        }
+        stats.calls.increment();
+        stats.nanos.add(nanos);
+        stats.probed.add(probed);
+    }
+
+    /**
+     * 记录一次物品处理器提供器调用
+     */
+    public static void recordProvider(long startNanos, boolean provided) {
+        if (startNanos == 0L) return;
+
+        PROVIDER_NANOS.record(System.nanoTime() - startNanos);
+        PROVIDER_CALLS.increment();
+        if (provided) {
+            PROVIDER_PROVIDED.increment();
+        }
+    }
+
+    public static void recordProviderError() {
+        PROVIDER_ERRORS.increment();
+    }
+
+    /**
+     * 记录一次发现中因共享库存被合并掉的处理器数量
+     */
+    public static void recordDeduplicated(int duplicates) {
+        if (!isEnabled() || duplicates == 0) return;
+
+        DISCOVERY_DEDUPLICATED.add(duplicates);
+    }
+
+    /**
+     * 记录一次反射/MethodHandle 调用失败（API 缺失或不兼容）
+     */
+    public static void recordReflectionFailure() {
+        REFLECTION_FAILURES.increment();
+    }
+
+    /**
+     * 记录一次提交到后台的异步发现及其快照大小
+     */
+    public static void recordAsyncSubmit(int snapshotSize) {
+        if (!isEnabled()) return;
+
+        ASYNC_SUBMITTED.increment();
+        ASYNC_SNAPSHOT_SIZE.record(snapshotSize);
+    }
+
+    public static void recordAsyncCommit() {
+        if (!isEnabled()) return;
+
+        ASYNC_COMMITTED.increment();
+    }
+
+    public static void reset() {
+        DISCOVERY_CALLS.reset();
+        DISCOVERY_NANOS.reset();
+        DISCOVERY_PROBED.reset();
+        DISCOVERY_FOUND.reset();
+        DISCOVERY_DEDUPLICATED.reset();
+        PROVIDER_CALLS.reset();
+        PROVIDER_PROVIDED.reset();
+        PROVIDER_ERRORS.reset();
+        PROVIDER_NANOS.reset();
+        REFLECTION_FAILURES.reset();
+        ASYNC_SUBMITTED.reset();
+        ASYNC_COMMITTED.reset();
+        ASYNC_SNAPSHOT_SIZE.reset();
+        KITCHENS.clear();
+        UNTRACKED_KITCHEN_CALLS.reset();
+        KitchenContainerCache.resetStats();
+        KitchenMembershipCache.resetStats();
+        PlayerBackpackCache.resetStats();
+        RegionDiscovery.resetStats();
+        KitchenInventorySync.resetStats();
+        RecipeAvailability.resetStats();
+        BridgeScheduler.resetStats();
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 生成可读的指标报告，命令输出与文件转储共用
+     */
+    public static List<String> report() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Sophisticated Cooking Bridge metrics (%ds, enabled=%s)",
+                (System.currentTimeMillis() - startedAt) / 1000, isEnabled()));
+
+        lines.add(String.format(Locale.ROOT, "Discovery: calls=%d, time mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+                DISCOVERY_CALLS.sum(), DISCOVERY_NANOS.getMean() / 1000.0,
+                DISCOVERY_NANOS.getPercentile(0.5) / 1000.0, DISCOVERY_NANOS.getPercentile(0.99) / 1000.0,
+                DISCOVERY_NANOS.getMax() / 1000.0));
+        lines.add(String.format(Locale.ROOT, "  probed/call mean=%.1f p99=%d max=%d, found/call mean=%.1f p99=%d max=%d",
+                DISCOVERY_PROBED.getMean(), DISCOVERY_PROBED.getPercentile(0.99), DISCOVERY_PROBED.getMax(),
+                DISCOVERY_FOUND.getMean(), DISCOVERY_FOUND.getPercentile(0.99), DISCOVERY_FOUND.getMax()));
+        lines.add(String.format(Locale.ROOT, "  deduplicated handlers=%d", DISCOVERY_DEDUPLICATED.sum()));
+
+        lines.add(String.format(Locale.ROOT, "Provider: calls=%d, provided=%d, errors=%d, time mean=%.0fns p99=%dns max=%dns",
+                PROVIDER_CALLS.sum(), PROVIDER_PROVIDED.sum(), PROVIDER_ERRORS.sum(),
+                PROVIDER_NANOS.getMean(), PROVIDER_NANOS.getPercentile(0.99), PROVIDER_NANOS.getMax()));
+        lines.add(String.format(Locale.ROOT, "Reflection failures: %d", REFLECTION_FAILURES.sum()));
+        lines.add(String.format(Locale.ROOT, "Scheduler: queued=%d (max %d), submitted=%d, completed=%d, slices=%d, failed=%d",
+                BridgeScheduler.getQueueDepth(), BridgeScheduler.getMaxQueueDepth(), BridgeScheduler.getSubmitted(),
+                BridgeScheduler.getCompleted(), BridgeScheduler.getSlices(), BridgeScheduler.getFailed()));
+        lines.add(String.format(Locale.ROOT, "  over-budget ticks=%d, deferred ticks=%d, time/tick mean=%.1fus p99=%.1fus max=%.1fus",
+                BridgeScheduler.getOverrunTicks(), BridgeScheduler.getDeferredTicks(),
+                BridgeScheduler.getTickNanos().getMean() / 1000.0, BridgeScheduler.getTickNanos().getPercentile(0.99) / 1000.0,
+                BridgeScheduler.getTickNanos().getMax() / 1000.0));
+        lines.add(String.format(Locale.ROOT, "Async discovery: submitted=%d, committed=%d, snapshot mean=%.1f max=%d",
+                ASYNC_SUBMITTED.sum(), ASYNC_COMMITTED.sum(), ASYNC_SNAPSHOT_SIZE.getMean(), ASYNC_SNAPSHOT_SIZE.getMax()));
+
+        lines.add(String.format(Locale.ROOT, "Cache: entries=%d, hit rate=%.1f%%, hits=%d, stale hits=%d, misses=%d, evictions=%d, invalidations=%d",
+                KitchenContainerCache.size(), KitchenContainerCache.getHitRate() * 100.0,
+                KitchenContainerCache.getHits(), KitchenContainerCache.getStaleHits(), KitchenContainerCache.getMisses(),
+                KitchenContainerCache.getEvictions(), KitchenContainerCache.getInvalidations()));
+        lines.add(String.format(Locale.ROOT, "Kitchen membership cache: entries=%d, hits=%d, misses=%d, invalidated=%d",
+                KitchenMembershipCache.size(), KitchenMembershipCache.getHits(), KitchenMembershipCache.getMisses(),
+                KitchenMembershipCache.getInvalidations()));
+        lines.add(String.format(Locale.ROOT, "Shared regions: regions=%d, builds=%d, reads=%d",
+                RegionDiscovery.size(), RegionDiscovery.getRegionBuilds(), RegionDiscovery.getRegionReads()));
+        lines.add(String.format(Locale.ROOT, "Player backpacks: cached=%d, reused=%d, built=%d",
+                PlayerBackpackCache.size(), PlayerBackpackCache.getHits(), PlayerBackpackCache.getBuilds()));
+
+        lines.add(String.format(Locale.ROOT, "Change tracking: containers=%d, hooked=%d, slot deltas=%d",
+                InventoryChangeTracker.size(), InventoryChangeTracker.getHookedCount(), InventoryChangeTracker.getDeltaCount()));
+        lines.add(String.format(Locale.ROOT, "Item interner: ids=%d, resets=%d",
+                ItemInterner.size(), ItemInterner.getResets()));
+        lines.add(String.format(Locale.ROOT, "Client sync: subscriptions=%d, snapshots=%d, deltas=%d, entries sent=%d",
+                KitchenInventorySync.getSubscriptionCount(), KitchenInventorySync.getSnapshotCount(),
+                KitchenInventorySync.getDeltaCount(), KitchenInventorySync.getEntryCount()));
+        lines.add(String.format(Locale.ROOT, "Recipe availability: full evaluations=%d, recipe checks=%d",
+                RecipeAvailability.getFullEvaluations(), RecipeAvailability.getRecipeChecks()));
+
+        List<Map.Entry<KitchenKey, KitchenStats>> kitchens = new ArrayList<>(KITCHENS.entrySet());
+        kitchens.sort(Comparator.comparingLong((Map.Entry<KitchenKey, KitchenStats> entry) -> entry.getValue().nanos.sum()).reversed());
+        lines.add(String.format(Locale.ROOT, "Top kitchens by discovery time (%d tracked, %d untracked calls):",
+                kitchens.size(), UNTRACKED_KITCHEN_CALLS.sum()));
+        for (int i = 0; i < Math.min(TOP_KITCHENS, kitchens.size()); i++) {
+            KitchenKey key = kitchens.get(i).getKey();
+            KitchenStats stats = kitchens.get(i).getValue();
+            long calls = stats.calls.sum();
+            long nanos = stats.nanos.sum();
+            lines.add(String.format(Locale.ROOT, "  #%d %s %s: calls=%d, total=%.2fms, mean=%.1fus, probed=%d",
+                    i + 1, key.dimension().location(), BlockPos.of(key.origin()).toShortString(),
+                    calls, nanos / 1_000_000.0, calls == 0 ? 0.0 : nanos / 1000.0 / calls, stats.probed.sum()));
+        }
+        return lines;
+    }
+
+    /**
+     * 把当前报告追加到指标文件（在 IO 线程池中写入），返回文件路径
+     */
+    public static Path dump() {
+        Path file = FMLPaths.GAMEDIR.get().resolve("logs").resolve(DUMP_FILE);
+        List<String> lines = new ArrayList<>();
+        lines.add("=== " + LocalDateTime.now() + " ===");
+        lines.addAll(report());
+
+        Util.ioPool().execute(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+                Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                LOGGER.error("写入指标文件失败: {}", file, e);
+            }
+        });
+        return file;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+
+        int intervalSeconds = Config.getMetricsDumpInterval();
+        if (intervalSeconds <= 0 || !isEnabled()) {
+            ticksSinceDump = 0;
+            return;
+        }
+
+        if (++ticksSinceDump >= intervalSeconds * 20) {
+            ticksSinceDump = 0;
+            BridgeScheduler.submit(TaskPriority.DIAGNOSTICS, DUMP_TASK);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            KITCHENS.keySet().removeIf(key -> key.dimension() == level.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        KITCHENS.clear();
+        UNTRACKED_KITCHEN_CALLS.reset();
+    }
+
+    private record KitchenKey(ResourceKey<Level> dimension, long origin) {
+    }
+
+    private static final class KitchenStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder probed = new LongAdder();
+    }
+}
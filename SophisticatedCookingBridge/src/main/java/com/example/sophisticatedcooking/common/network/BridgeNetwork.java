@@ -0,0 +1,63 @@
+package com.example.sophisticatedcooking.common.network;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.network.simple.SimpleChannel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Optional;
+
+/**
+ * 桥接模组的网络通道
+ * 另一端没有安装本模组时通道视为缺失，不发送任何数据包。
+ */
+public class BridgeNetwork {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String PROTOCOL_VERSION = "2";
+
+    public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
+            new ResourceLocation(SophisticatedCookingBridge.MOD_ID, "main"),
+            () -> PROTOCOL_VERSION,
+            NetworkRegistry.acceptMissingOr(PROTOCOL_VERSION),
+            NetworkRegistry.acceptMissingOr(PROTOCOL_VERSION));
+
+    private static boolean registered = false;
+
+    public static void register() {
+        if (registered) return;
+        registered = true;
+
+        int id = 0;
+        CHANNEL.registerMessage(id++, KitchenInventoryMessage.class,
+                KitchenInventoryMessage::encode, KitchenInventoryMessage::decode, KitchenInventoryMessage::handle,
+                Optional.of(NetworkDirection.PLAY_TO_CLIENT));
+        CHANNEL.registerMessage(id++, KitchenSyncRequestMessage.class,
+                KitchenSyncRequestMessage::encode, KitchenSyncRequestMessage::decode, KitchenSyncRequestMessage::handle,
+                Optional.of(NetworkDirection.PLAY_TO_SERVER));
+        CHANNEL.registerMessage(id++, KitchenSubscriptionMessage.class,
+                KitchenSubscriptionMessage::encode, KitchenSubscriptionMessage::decode, KitchenSubscriptionMessage::handle,
+                Optional.of(NetworkDirection.PLAY_TO_SERVER));
+
+        LOGGER.debug("Registered {} network messages", id);
+    }
+
+    /**
+     * 玩家客户端是否安装了本模组
+     */
+    public static boolean isPresent(ServerPlayer player) {
+        return player.connection != null && CHANNEL.isRemotePresent(player.connection.getConnection());
+    }
+
+    public static void sendTo(ServerPlayer player, Object message) {
+        CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), message);
+    }
+
+    public static void sendToServer(Object message) {
+        CHANNEL.sendToServer(message);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.sophisticatedcooking.common.network;
+
+import com.example.sophisticatedcooking.client.KitchenInventoryClientCache;
+import com.example.sophisticatedcooking.common.inventory.ItemKey;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 服务端 → 客户端：厨房可用物品摘要
+ * full 为 true 时是完整快照，否则只包含数量变化的物品（数量 0 表示已经没有）。
+ * 每个物品编码为 物品数字 id + 可选 NBT + 数量（VarLong），不携带槽位信息。
+ */
+public class KitchenInventoryMessage {
+    private final BlockPos kitchenPos;
+    private final boolean full;
+    private final int sequence;
+    private final List<Entry> entries;
+
+    public KitchenInventoryMessage(BlockPos kitchenPos, boolean full, int sequence, List<Entry> entries) {
+        this.kitchenPos = kitchenPos;
+        this.full = full;
+        this.sequence = sequence;
+        this.entries = entries;
+    }
+
+    public BlockPos getKitchenPos() {
+        return kitchenPos;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static void encode(KitchenInventoryMessage message, FriendlyByteBuf buf) {
+        buf.writeBlockPos(message.kitchenPos);
+        buf.writeBoolean(message.full);
+        buf.writeVarInt(message.sequence);
+        buf.writeVarInt(message.entries.size());
+        for (Entry entry : message.entries) {
+            buf.writeVarInt(Item.getId(entry.key().getItem()));
+            buf.writeNbt(entry.key().getTag());
+            buf.writeVarLong(entry.count());
+        }
+    }
+
+    public static KitchenInventoryMessage decode(FriendlyByteBuf buf) {
+        BlockPos kitchenPos = buf.readBlockPos();
+        boolean full = buf.readBoolean();
+        int sequence = buf.readVarInt();
+        int size = buf.readVarInt();
+
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ItemStack stack = new ItemStack(Item.byId(buf.readVarInt()));
+            stack.setTag(buf.readNbt());
+            entries.add(new Entry(ItemKey.of(stack), buf.readVarLong()));
+        }
+        return new KitchenInventoryMessage(kitchenPos, full, sequence, entries);
+    }
+
+    public static void handle(KitchenInventoryMessage message, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> KitchenInventoryClientCache.apply(message)));
+        context.setPacketHandled(true);
+    }
+
+    public record Entry(ItemKey key, long count) {
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.sophisticatedcooking.common.network;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.cache.PlayerBackpackCache;
+import com.example.sophisticatedcooking.common.inventory.AggregatedItemHandler;
+import com.example.sophisticatedcooking.common.inventory.ItemKey;
+import com.example.sophisticatedcooking.common.scheduler.BridgeScheduler;
+import com.example.sophisticatedcooking.common.scheduler.TaskPriority;
+import com.example.sophisticatedcooking.integration.CFBApi;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 把厨房的可用物品摘要同步给订阅了该厨房的玩家
+ * 只有客户端通过 KitchenSubscriptionMessage 声明订阅（客户端界面代码调用 KitchenInventoryClientCache.subscribe）后才发送：
+ * 先发送完整快照，之后每 inventorySyncInterval 刻只在聚合库存版本变化时比较并发送数量有变化的物品。
+ * 每个数据包最多 MAX_ENTRIES_PER_MESSAGE 个物品，更大的摘要分成多个连续序号的数据包。
+ * 摘要包含玩家携带的背包。同步作为玩家优先级的任务交给 BridgeScheduler。只在服务端主线程访问。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class KitchenInventorySync {
+    // 单个数据包的物品数量上限
+    static final int MAX_ENTRIES_PER_MESSAGE = 256;
+    // 玩家离订阅的厨房超过该距离（格）时取消订阅
+    private static final double MAX_SUBSCRIBE_DISTANCE = 64.0;
+
+    private static final LongAdder SNAPSHOTS = new LongAdder();
+    private static final LongAdder DELTAS = new LongAdder();
+    private static final LongAdder ENTRIES = new LongAdder();
+
+    private static final Map<UUID, Subscription> SUBSCRIPTIONS = new HashMap<>();
+    private static final BridgeScheduler.Task SYNC_TASK = BridgeScheduler.once(KitchenInventorySync::syncAll);
+    private static int ticksSinceSync = 0;
+
+    public static int getSubscriptionCount() {
+        return SUBSCRIPTIONS.size();
+    }
+
+    public static long getSnapshotCount() {
+        return SNAPSHOTS.sum();
+    }
+
+    public static long getDeltaCount() {
+        return DELTAS.sum();
+    }
+
+    public static long getEntryCount() {
+        return ENTRIES.sum();
+    }
+
+    public static void resetStats() {
+        SNAPSHOTS.reset();
+        DELTAS.reset();
+        ENTRIES.reset();
+    }
+
+    /**
+     * 客户端缓存丢失或序号不连续时，下一次同步改为完整快照
+     */
+    static void requestFullSync(ServerPlayer player, BlockPos kitchenPos) {
+        Subscription subscription = SUBSCRIPTIONS.get(player.getUUID());
+        if (subscription != null && subscription.kitchenPos.equals(kitchenPos)) {
+            subscription.full = true;
+        }
+    }
+
+    /**
+     * 客户端声明订阅厨房；坐标不是厨房或玩家离得太远时忽略。每个玩家同时只订阅一个厨房
+     */
+    static void subscribe(ServerPlayer player, BlockPos kitchenPos) {
+        if (Config.getInventorySyncInterval() <= 0 || !isWithinRange(player, kitchenPos)
+                || !CFBApi.isValidKitchen(player.getLevel(), kitchenPos)) {
+            return;
+        }
+
+        Subscription subscription = new Subscription(player.getLevel().dimension(), kitchenPos.immutable());
+        SUBSCRIPTIONS.put(player.getUUID(), subscription);
+        sync(player, subscription);
+    }
+
+    static void unsubscribe(ServerPlayer player, BlockPos kitchenPos) {
+        Subscription subscription = SUBSCRIPTIONS.get(player.getUUID());
+        if (subscription != null && subscription.kitchenPos.equals(kitchenPos)) {
+            SUBSCRIPTIONS.remove(player.getUUID());
+        }
+    }
+
+    private static boolean isWithinRange(ServerPlayer player, BlockPos kitchenPos) {
+        return player.distanceToSqr(kitchenPos.getX() + 0.5, kitchenPos.getY() + 0.5, kitchenPos.getZ() + 0.5)
+                <= MAX_SUBSCRIBE_DISTANCE * MAX_SUBSCRIBE_DISTANCE;
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        SUBSCRIPTIONS.remove(event.getPlayer().getUUID());
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || SUBSCRIPTIONS.isEmpty()) return;
+
+        int interval = Config.getInventorySyncInterval();
+        if (interval <= 0) {
+            SUBSCRIPTIONS.clear();
+            return;
+        }
+        if (++ticksSinceSync < interval) return;
+        ticksSinceSync = 0;
+        BridgeScheduler.submit(TaskPriority.PLAYER, SYNC_TASK);
+    }
+
+    private static void syncAll() {
+        Iterator<Map.Entry<UUID, Subscription>> iterator = SUBSCRIPTIONS.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Subscription> entry = iterator.next();
+            ServerPlayer player = ServerLifecycleHooks.getCurrentServer().getPlayerList().getPlayer(entry.getKey());
+            if (player == null || player.getLevel().dimension() != entry.getValue().dimension
+                    || !isWithinRange(player, entry.getValue().kitchenPos)) {
+                iterator.remove();
+                continue;
+            }
+            sync(player, entry.getValue());
+        }
+    }
+
+    /**
+     * 比较聚合库存与上一次发送的摘要，只发送数量变化的物品；库存版本未变化时不做比较
+     * 变化超过 MAX_ENTRIES_PER_MESSAGE 个时分页发送，只有第一页标记为完整快照。
+     */
+    private static void sync(ServerPlayer player, Subscription subscription) {
+        AggregatedItemHandler view = PlayerBackpackCache.getKitchenInventory(
+                player.getLevel(), subscription.kitchenPos, Config.getSearchRange(), player);
+        Set<ItemKey> stocked = view.getStockedItems();
+        if (!subscription.full && view == subscription.view && view.getVersion() == subscription.version) {
+            return;
+        }
+
+        boolean full = subscription.full;
+        if (full) {
+            subscription.sent.clear();
+        }
+
+        List<KitchenInventoryMessage.Entry> changes = new ArrayList<>();
+        for (ItemKey key : stocked) {
+            long count = view.getCount(key);
+            if (subscription.sent.getLong(key) != count) {
+                subscription.sent.put(key, count);
+                changes.add(new KitchenInventoryMessage.Entry(key, count));
+            }
+        }
+        ObjectIterator<Object2LongMap.Entry<ItemKey>> sentIterator = subscription.sent.object2LongEntrySet().iterator();
+        while (sentIterator.hasNext()) {
+            ItemKey key = sentIterator.next().getKey();
+            if (!stocked.contains(key)) {
+                sentIterator.remove();
+                changes.add(new KitchenInventoryMessage.Entry(key, 0L));
+            }
+        }
+
+        subscription.view = view;
+        subscription.version = view.getVersion();
+        subscription.full = false;
+        if (!full && changes.isEmpty()) return;
+
+        int from = 0;
+        do {
+            int to = Math.min(from + MAX_ENTRIES_PER_MESSAGE, changes.size());
+            boolean firstPage = from == 0;
+            BridgeNetwork.sendTo(player, new KitchenInventoryMessage(subscription.kitchenPos, full && firstPage,
+                    ++subscription.sequence, new ArrayList<>(changes.subList(from, to))));
+            (full && firstPage ? SNAPSHOTS : DELTAS).increment();
+            from = to;
+        } while (from < changes.size());
+        ENTRIES.add(changes.size());
+    }
+
+    private static final class Subscription {
+        final ResourceKey<Level> dimension;
+        final BlockPos kitchenPos;
+        // 客户端当前持有的摘要；缺省数量 0 表示客户端没有该物品
+        final Object2LongOpenHashMap<ItemKey> sent = new Object2LongOpenHashMap<>();
+        AggregatedItemHandler view;
+        int version;
+        int sequence;
+        boolean full = true;
+
+        Subscription(ResourceKey<Level> dimension, BlockPos kitchenPos) {
+            this.dimension = dimension;
+            this.kitchenPos = kitchenPos;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.sophisticatedcooking.common.network;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * 客户端 → 服务端：订阅或取消订阅厨房的可用物品摘要
+ * 服务端只向声明了订阅的客户端发送摘要。
+ */
+public class KitchenSubscriptionMessage {
+    private final BlockPos kitchenPos;
+    private final boolean subscribe;
+
+    public KitchenSubscriptionMessage(BlockPos kitchenPos, boolean subscribe) {
+        this.kitchenPos = kitchenPos;
+        this.subscribe = subscribe;
+    }
+
+    public static void encode(KitchenSubscriptionMessage message, FriendlyByteBuf buf) {
+        buf.writeBlockPos(message.kitchenPos);
+        buf.writeBoolean(message.subscribe);
+    }
+
+    public static KitchenSubscriptionMessage decode(FriendlyByteBuf buf) {
+        return new KitchenSubscriptionMessage(buf.readBlockPos(), buf.readBoolean());
+    }
+
+    public static void handle(KitchenSubscriptionMessage message, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        ServerPlayer player = context.getSender();
+        if (player != null) {
+            context.enqueueWork(() -> {
+                if (message.subscribe) {
+                    KitchenInventorySync.subscribe(player, message.kitchenPos);
+                } else {
+                    KitchenInventorySync.unsubscribe(player, message.kitchenPos);
+                }
+            });
+        }
+        context.setPacketHandled(true);
+    }
+}
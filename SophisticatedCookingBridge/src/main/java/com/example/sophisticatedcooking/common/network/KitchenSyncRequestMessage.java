@@ -0,0 +1,36 @@
+package com.example.sophisticatedcooking.common.network;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * 客户端 → 服务端：客户端缓存与服务端序号不一致时请求重新发送完整快照
+ */
+public class KitchenSyncRequestMessage {
+    private final BlockPos kitchenPos;
+
+    public KitchenSyncRequestMessage(BlockPos kitchenPos) {
+        this.kitchenPos = kitchenPos;
+    }
+
+    public static void encode(KitchenSyncRequestMessage message, FriendlyByteBuf buf) {
+        buf.writeBlockPos(message.kitchenPos);
+    }
+
+    public static KitchenSyncRequestMessage decode(FriendlyByteBuf buf) {
+        return new KitchenSyncRequestMessage(buf.readBlockPos());
+    }
+
+    public static void handle(KitchenSyncRequestMessage message, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        ServerPlayer player = context.getSender();
+        if (player != null) {
+            context.enqueueWork(() -> KitchenInventorySync.requestFullSync(player, message.kitchenPos));
+        }
+        context.setPacketHandled(true);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.sophisticatedcooking.common.recipe;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.cache.KitchenContainerCache;
+import com.example.sophisticatedcooking.common.inventory.AggregatedItemHandler;
+import com.example.sophisticatedcooking.common.inventory.IngredientMatcher;
+import com.example.sophisticatedcooking.common.inventory.InventoryChangeTracker;
+import com.example.sophisticatedcooking.common.inventory.ItemKey;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.OnDatapackSyncEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按厨房维护的食物配方可制作位集
+ * 第一次查询（或容器集合、配方目录变化后）完整计算一次；之后由 InventoryChangeTracker 的槽位变化驱动，
+ * 只把变化物品在反向索引中对应的配方标记为待检查，查询时只在聚合库存版本变化后重新检查这些配方；
+ * 版本变化却没有收到槽位通知（变化来自未跟踪的处理器）时完整重新计算。
+ * 只在服务端维护；客户端查询返回空位集。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class RecipeAvailability {
+    private static final int MAX_KITCHENS = 256;
+    private static final LongAdder FULL_EVALUATIONS = new LongAdder();
+    private static final LongAdder RECIPE_CHECKS = new LongAdder();
+
+    private static final Map<Key, KitchenState> KITCHENS = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, KitchenState> eldest) {
+            return size() > MAX_KITCHENS;
+        }
+    };
+    // 材料分配与 ExtractionPlanner 使用同一种匹配；只在持锁时使用，每个配方检查前清空
+    private static final IngredientMatcher MATCHER = new IngredientMatcher();
+    private static RecipeCatalog catalog;
+
+    static {
+        InventoryChangeTracker.addListener(RecipeAvailability::onSlotChanged);
+    }
+
+    /**
+     * 厨房当前可制作的配方序号位集（副本）；序号对应 getCatalog(level) 中的配方
+     */
+    public static synchronized BitSet getCraftable(Level level, BlockPos origin, int range) {
+        if (level == null || level.isClientSide) return new BitSet();
+
+        RecipeCatalog recipes = getCatalog(level);
+        AggregatedItemHandler view = KitchenContainerCache.getKitchenInventory(level, origin, range);
+
+        Key key = new Key(level.dimension(), origin.asLong(), range);
+        KitchenState state = KITCHENS.get(key);
+        if (state == null || state.catalog != recipes || state.view != view || state.handlers != view.getHandlers()) {
+            state = new KitchenState(recipes, view);
+            KITCHENS.put(key, state);
+            evaluate(state, null);
+            FULL_EVALUATIONS.increment();
+        } else {
+            // 先让索引追上最新内容，版本号才可比较
+            view.getStockedItems();
+            if (view.getVersion() != state.version) {
+                BitSet pending = state.pending;
+                state.pending = new BitSet(recipes.size());
+                evaluate(state, state.notified ? pending : null);
+                if (!state.notified) {
+                    FULL_EVALUATIONS.increment();
+                }
+            }
+        }
+        state.version = view.getVersion();
+        state.notified = false;
+        return (BitSet) state.craftable.clone();
+    }
+
+    public static boolean isCraftable(Level level, BlockPos origin, int range, ResourceLocation recipeId) {
+        if (level == null || level.isClientSide) return false;
+
+        int index = getCatalog(level).indexOf(recipeId);
+        return index >= 0 && getCraftable(level, origin, range).get(index);
+    }
+
+    public static synchronized RecipeCatalog getCatalog(Level level) {
+        if (catalog == null) {
+            catalog = RecipeCatalog.build(level.getRecipeManager());
+        }
+        return catalog;
+    }
+
+    public static synchronized void clear() {
+        KITCHENS.clear();
+        catalog = null;
+    }
+
+    public static long getFullEvaluations() {
+        return FULL_EVALUATIONS.sum();
+    }
+
+    public static long getRecipeChecks() {
+        return RECIPE_CHECKS.sum();
+    }
+
+    public static void resetStats() {
+        FULL_EVALUATIONS.reset();
+        RECIPE_CHECKS.reset();
+    }
+
+    /**
+     * 槽位物品变化时，把使用变化前后物品的配方标记为待检查
+     */
+    private static synchronized void onSlotChanged(IItemHandler handler, int slot, ItemStack before, ItemStack after) {
+        if (KITCHENS.isEmpty()) return;
+
+        for (KitchenState state : KITCHENS.values()) {
+            if (!state.handlerSet.containsKey(handler)) continue;
+
+            state.notified = true;
+            if (!before.isEmpty()) {
+                markPending(state, before.getItem());
+            }
+            if (!after.isEmpty() && after.getItem() != before.getItem()) {
+                markPending(state, after.getItem());
+            }
+        }
+    }
+
+    private static void markPending(KitchenState state, Item item) {
+        for (int recipe : state.catalog.getRecipesUsing(item)) {
+            state.pending.set(recipe);
+        }
+    }
+
+    /**
+     * 检查 recipes 中的配方（为 null 时检查全部）并更新位集
+     */
+    private static void evaluate(KitchenState state, BitSet recipes) {
+        AggregatedItemHandler view = state.view;
+        Set<ItemKey> stocked = view.getStockedItems();
+
+        // 同一物品的不同 NBT 变体
+        Map<Item, List<ItemKey>> byItem = new Reference2ObjectOpenHashMap<>();
+        for (ItemKey key : stocked) {
+            byItem.computeIfAbsent(key.getItem(), item -> new ArrayList<>(1)).add(key);
+        }
+
+        if (recipes == null) {
+            state.craftable.clear();
+            for (int i = 0; i < state.catalog.size(); i++) {
+                state.craftable.set(i, isCraftable(state.catalog.getIngredients(i), view, byItem));
+            }
+            RECIPE_CHECKS.add(state.catalog.size());
+        } else {
+            for (int i = recipes.nextSetBit(0); i >= 0; i = recipes.nextSetBit(i + 1)) {
+                state.craftable.set(i, isCraftable(state.catalog.getIngredients(i), view, byItem));
+            }
+            RECIPE_CHECKS.add(recipes.cardinality());
+        }
+    }
+
+    /**
+     * 与 ExtractionPlanner 相同的 IngredientMatcher 分配，但只把材料可能匹配的物品作为候选，不遍历整个库存
+     */
+    private static boolean isCraftable(List<Ingredient> ingredients, AggregatedItemHandler view, Map<Item, List<ItemKey>> byItem) {
+        Map<Ingredient, int[]> needed = new IdentityHashMap<>();
+        for (Ingredient ingredient : ingredients) {
+            needed.computeIfAbsent(ingredient, i -> new int[1])[0]++;
+        }
+
+        MATCHER.clear();
+        for (Map.Entry<Ingredient, int[]> entry : needed.entrySet()) {
+            Ingredient ingredient = entry.getKey();
+            int requirement = MATCHER.addRequirement(ingredient, entry.getValue()[0]);
+            for (ItemStack option : ingredient.getItems()) {
+                List<ItemKey> keys = byItem.get(option.getItem());
+                if (keys == null) continue;
+
+                for (ItemKey key : keys) {
+                    if (ingredient.test(key.asTemplate())) {
+                        MATCHER.addCandidate(requirement, key, view.getCount(key));
+                    }
+                }
+            }
+        }
+        return MATCHER.solve();
+    }
+
+    @SubscribeEvent
+    public static void onDatapackSync(OnDatapackSyncEvent event) {
+        // 玩家加入时也会触发；只有 /reload（没有玩家）才表示配方变化
+        if (event.getPlayer() == null) {
+            clear();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        // 客户端收到标签同步时也会触发；只有服务端重新加载数据才影响这里的配方目录
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            clear();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        clear();
+    }
+
+    private record Key(ResourceKey<Level> dimension, long origin, int range) {
+    }
+
+    private static final class KitchenState {
+        final RecipeCatalog catalog;
+        final AggregatedItemHandler view;
+        final List<IItemHandler> handlers;
+        final IdentityHashMap<IItemHandler, Boolean> handlerSet = new IdentityHashMap<>();
+        final BitSet craftable;
+        BitSet pending;
+        // 上一次查询时聚合库存的版本，以及之后是否收到过这些处理器的槽位通知
+        int version;
+        boolean notified;
+
+        KitchenState(RecipeCatalog catalog, AggregatedItemHandler view) {
+            this.catalog = catalog;
+            this.view = view;
+            this.handlers = view.getHandlers();
+            this.craftable = new BitSet(catalog.size());
+            this.pending = new BitSet(catalog.size());
+            for (IItemHandler handler : handlers) {
+                handlerSet.put(handler, Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.sophisticatedcooking.common.recipe;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产物为食物的合成/熔炼配方目录
+ * 每个配方有固定的序号（用于可制作位集），并建立 物品 → 使用该物品的配方序号 的反向索引。
+ * 数据包或标签重新加载后整体重建。
+ */
+public final class RecipeCatalog {
+    private static final int[] NO_RECIPES = new int[0];
+
+    private final List<Recipe<?>> recipes;
+    private final List<List<Ingredient>> ingredients;
+    private final Object2IntOpenHashMap<ResourceLocation> ids = new Object2IntOpenHashMap<>();
+    private final Map<Item, int[]> recipesByItem;
+
+    private RecipeCatalog(List<Recipe<?>> recipes, List<List<Ingredient>> ingredients, Map<Item, int[]> recipesByItem) {
+        this.recipes = Collections.unmodifiableList(recipes);
+        this.ingredients = ingredients;
+        this.recipesByItem = recipesByItem;
+        this.ids.defaultReturnValue(-1);
+        for (int i = 0; i < recipes.size(); i++) {
+            ids.put(recipes.get(i).getId(), i);
+        }
+    }
+
+    static RecipeCatalog build(RecipeManager recipeManager) {
+        List<Recipe<?>> recipes = new ArrayList<>();
+        List<List<Ingredient>> ingredients = new ArrayList<>();
+        Map<Item, IntArrayList> byItem = new Reference2ObjectOpenHashMap<>();
+
+        for (Recipe<?> recipe : recipeManager.getRecipes()) {
+            if (recipe.getType() != RecipeType.CRAFTING && recipe.getType() != RecipeType.SMELTING) continue;
+
+            ItemStack result = recipe.getResultItem();
+            if (result.isEmpty() || !result.isEdible()) continue;
+
+            List<Ingredient> nonEmpty = new ArrayList<>();
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (!ingredient.isEmpty()) {
+                    nonEmpty.add(ingredient);
+                }
+            }
+            if (nonEmpty.isEmpty()) continue;
+
+            int index = recipes.size();
+            recipes.add(recipe);
+            ingredients.add(nonEmpty);
+            for (Ingredient ingredient : nonEmpty) {
+                for (ItemStack stack : ingredient.getItems()) {
+                    IntArrayList list = byItem.computeIfAbsent(stack.getItem(), item -> new IntArrayList(4));
+                    // 同一配方中的材料连续加入，只需和最后一个比较即可去重
+                    if (list.isEmpty() || list.getInt(list.size() - 1) != index) {
+                        list.add(index);
+                    }
+                }
+            }
+        }
+
+        Map<Item, int[]> recipesByItem = new Reference2ObjectOpenHashMap<>(byItem.size());
+        byItem.forEach((item, list) -> recipesByItem.put(item, list.toIntArray()));
+        return new RecipeCatalog(recipes, ingredients, recipesByItem);
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    public List<Recipe<?>> getRecipes() {
+        return recipes;
+    }
+
+    public Recipe<?> getRecipe(int index) {
+        return recipes.get(index);
+    }
+
+    /**
+     * 配方的序号；不在目录中时返回 -1
+     */
+    public int indexOf(ResourceLocation recipeId) {
+        return ids.getInt(recipeId);
+    }
+
+    /**
+     * 配方的非空材料（每个位置一个 Ingredient）
+     */
+    List<Ingredient> getIngredients(int index) {
+        return ingredients.get(index);
+    }
+
+    /**
+     * 材料中可能用到该物品的配方序号
+     */
+    int[] getRecipesUsing(Item item) {
+        return recipesByItem.getOrDefault(item, NO_RECIPES);
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.sophisticatedcooking.common.scheduler;
+
+import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.metrics.Log2Histogram;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 桥接模组后台工作的统一调度器
+ * 各模块在自己的计时到期时提交任务，调度器在服务端 tick 结束时按优先级执行，
+ * 每 tick 的总耗时不超过 schedulerTickBudget；超出预算的任务留到之后的 tick。
+ * 可分段的任务（Task 返回 false）在截止时间前让出，下一 tick 从断点继续，大块工作因此被摊到多个 tick。
+ * 每 tick 至少执行一个任务；等待超过 MAX_WAIT_TICKS 的低优先级任务会被提前，避免一直饿死。
+ * 只在服务端主线程访问。
+ */
+public class BridgeScheduler {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+    private static final int MAX_WAIT_TICKS = 40;
+
+    @SuppressWarnings("unchecked")
+    private static final ArrayDeque<Scheduled>[] QUEUES = new ArrayDeque[PRIORITIES.length];
+    private static final Set<Task> QUEUED = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private static final LongAdder SUBMITTED = new LongAdder();
+    private static final LongAdder SLICES = new LongAdder();
+    private static final LongAdder COMPLETED = new LongAdder();
+    private static final LongAdder FAILED = new LongAdder();
+    private static final LongAdder OVERRUN_TICKS = new LongAdder();
+    private static final LongAdder DEFERRED_TICKS = new LongAdder();
+    private static final Log2Histogram TICK_NANOS = new Log2Histogram();
+
+    private static boolean registered = false;
+    private static long tick = 0;
+    private static int maxQueueDepth = 0;
+
+    static {
+        for (int i = 0; i < QUEUES.length; i++) {
+            QUEUES[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * 挂到 Forge 事件总线；在 commonSetup 中调用一次
+     * 以最低优先级监听，同一 tick 内其他模块在 tick 结束时提交的任务当 tick 即可执行。
+     */
+    public static void register() {
+        if (registered) return;
+        registered = true;
+
+        MinecraftForge.EVENT_BUS.addListener(EventPriority.LOWEST, BridgeScheduler::onServerTick);
+        MinecraftForge.EVENT_BUS.addListener(BridgeScheduler::onServerStopped);
+    }
+
+    /**
+     * 提交任务；同一个任务实例已在队列中时不重复加入，返回 false
+     */
+    public static boolean submit(TaskPriority priority, Task task) {
+        if (!QUEUED.add(task)) return false;
+
+        QUEUES[priority.ordinal()].addLast(new Scheduled(task, tick));
+        SUBMITTED.increment();
+        maxQueueDepth = Math.max(maxQueueDepth, QUEUED.size());
+        return true;
+    }
+
+    public static boolean isQueued(Task task) {
+        return QUEUED.contains(task);
+    }
+
+    /**
+     * 把一次性的工作包装为任务；返回的实例应保存下来重复提交，以便去重
+     */
+    public static Task once(Runnable runnable) {
+        return deadline -> {
+            runnable.run();
+            return true;
+        };
+    }
+
+    /**
+     * 在预算内执行队列中的任务
+     */
+    static void runTick() {
+        tick++;
+        if (QUEUED.isEmpty()) return;
+
+        long budgetNanos = Config.getSchedulerTickBudgetMicros() * 1000L;
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+
+        // 等待过久的任务先执行一次
+        ArrayDeque<Scheduled> starved = findStarved();
+        boolean ran = starved != null;
+        if (ran) {
+            runHead(starved, deadline);
+        }
+
+        for (ArrayDeque<Scheduled> queue : QUEUES) {
+            while (!queue.isEmpty() && (!ran || System.nanoTime() < deadline)) {
+                ran = true;
+                if (!runHead(queue, deadline)) break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        TICK_NANOS.record(elapsed);
+        if (elapsed > budgetNanos) {
+            OVERRUN_TICKS.increment();
+        }
+        if (!QUEUED.isEmpty()) {
+            DEFERRED_TICKS.increment();
+        }
+    }
+
+    private static ArrayDeque<Scheduled> findStarved() {
+        for (int i = PRIORITIES.length - 1; i > 0; i--) {
+            Scheduled head = QUEUES[i].peekFirst();
+            if (head != null && tick - head.since >= MAX_WAIT_TICKS) {
+                return QUEUES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 执行队首任务的一段；任务完成时出队并返回 true，让出时留在队首并返回 false
+     */
+    private static boolean runHead(ArrayDeque<Scheduled> queue, long deadline) {
+        Scheduled scheduled = queue.peekFirst();
+        boolean done;
+        try {
+            done = scheduled.task.run(deadline);
+        } catch (Exception e) {
+            LOGGER.error("后台任务执行失败", e);
+            FAILED.increment();
+            done = true;
+        }
+        SLICES.increment();
+
+        if (done) {
+            queue.pollFirst();
+            QUEUED.remove(scheduled.task);
+            COMPLETED.increment();
+            return true;
+        }
+        // 分段任务从现在起重新计算等待时间，避免每 tick 都被当作饿死的任务优先执行
+        scheduled.since = tick;
+        return false;
+    }
+
+    public static int getQueueDepth() {
+        return QUEUED.size();
+    }
+
+    public static int getQueueDepth(TaskPriority priority) {
+        return QUEUES[priority.ordinal()].size();
+    }
+
+    public static int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public static long getSubmitted() {
+        return SUBMITTED.sum();
+    }
+
+    /**
+     * 任务被执行的次数（分段任务每段计一次）
+     */
+    public static long getSlices() {
+        return SLICES.sum();
+    }
+
+    public static long getCompleted() {
+        return COMPLETED.sum();
+    }
+
+    public static long getFailed() {
+        return FAILED.sum();
+    }
+
+    /**
+     * 执行耗时超过预算的 tick 数
+     */
+    public static long getOverrunTicks() {
+        return OVERRUN_TICKS.sum();
+    }
+
+    /**
+     * 结束时队列中仍有任务留到之后的 tick 的次数
+     */
+    public static long getDeferredTicks() {
+        return DEFERRED_TICKS.sum();
+    }
+
+    public static Log2Histogram getTickNanos() {
+        return TICK_NANOS;
+    }
+
+    public static void resetStats() {
+        SUBMITTED.reset();
+        SLICES.reset();
+        COMPLETED.reset();
+        FAILED.reset();
+        OVERRUN_TICKS.reset();
+        DEFERRED_TICKS.reset();
+        TICK_NANOS.reset();
+        maxQueueDepth = QUEUED.size();
+    }
+
+    private static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            runTick();
+        }
+    }
+
+    private static void onServerStopped(ServerStoppedEvent event) {
+        // 任务可能持有已卸载的维度；丢弃前让每个任务释放自己的进度
+        for (ArrayDeque<Scheduled> queue : QUEUES) {
+            for (Scheduled scheduled : queue) {
+                try {
+                    scheduled.task.close();
+                } catch (Exception e) {
+                    LOGGER.error("后台任务关闭失败", e);
+                }
+            }
+            queue.clear();
+        }
+        QUEUED.clear();
+    }
+
+    /**
+     * 可分段执行的后台任务
+     */
+    @FunctionalInterface
+    public interface Task {
+        /**
+         * 执行一段工作，尽量在 deadline（System.nanoTime）前返回；全部完成时返回 true，
+         * 返回 false 时任务留在队首，下一 tick 继续。每次调用都应至少推进一步。
+         */
+        boolean run(long deadline);
+
+        /**
+         * 任务未完成就被丢弃时调用（服务器停止）；重置分段进度并释放持有的维度、文件等
+         */
+        default void close() {
+        }
+    }
+
+    private static final class Scheduled {
+        final Task task;
+        long since;
+
+        Scheduled(Task task, long since) {
+            this.task = task;
+            this.since = since;
+        }
+    }
+}
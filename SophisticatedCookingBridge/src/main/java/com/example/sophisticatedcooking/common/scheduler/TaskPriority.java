@@ -0,0 +1,26 @@
+package com.example.sophisticatedcooking.common.scheduler;
+
+/**
+ * BridgeScheduler 中任务的优先级，按声明顺序执行
+ */
+public enum TaskPriority {
+    /**
+     * 玩家直接可见的工作，例如向打开食谱书的玩家同步库存
+     */
+    PLAYER,
+
+    /**
+     * 缓存刷新，例如提交后台发现的结果
+     */
+    REFRESH,
+
+    /**
+     * 周期性的维护，例如能量与库存采样
+     */
+    MAINTENANCE,
+
+    /**
+     * 诊断输出，例如指标转储与扫描导出
+     */
+    DIAGNOSTICS
+}
@@ -0,0 +1,155 @@
+package com.example.sophisticatedcooking.common.trace;
+
+import com.example.sophisticatedcooking.SophisticatedCookingBridge;
+import com.example.sophisticatedcooking.common.Config;
+import net.minecraft.Util;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 低开销的结构化追踪
+ * 事件以定长二进制形式写入每个线程预先分配的环形缓冲区，热路径上没有格式化和日志框架调用；
+ * 通过 /sophisticatedcooking trace dump 或慢 tick 触发时才解码并写入 logs 目录。
+ */
+@Mod.EventBusSubscriber(modid = SophisticatedCookingBridge.MOD_ID)
+public class BridgeTrace {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int SLOW_TICK_DUMP_COOLDOWN_TICKS = 600;
+
+    private static final List<TraceRing> RINGS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<TraceRing> RING = ThreadLocal.withInitial(() -> {
+        TraceRing ring = new TraceRing(Thread.currentThread().getName(), Config.getTraceBufferEvents());
+        RINGS.add(ring);
+        return ring;
+    });
+
+    private static long tickStartNanos = 0L;
+    private static int ticksSinceSlowDump = SLOW_TICK_DUMP_COOLDOWN_TICKS;
+
+    public static boolean isEnabled() {
+        return Config.isTraceEnabled();
+    }
+
+    public static void record(TraceEvent type, long a, long b) {
+        record(type, a, b, 0L);
+    }
+
+    /**
+     * 记录一个事件；追踪关闭或未被采样时直接返回
+     */
+    public static void record(TraceEvent type, long a, long b, long c) {
+        if (!isEnabled()) return;
+
+        TraceRing ring = RING.get();
+        if (ring.sample(Config.getTraceSampleRate())) {
+            ring.write(type, a, b, c);
+        }
+    }
+
+    /**
+     * 解码所有线程缓冲区中的事件，按时间排序
+     */
+    public static List<String> decode() {
+        List<long[]> events = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        for (TraceRing ring : RINGS) {
+            long[] copy = ring.copy();
+            for (int offset = 0; offset < copy.length; offset += TraceRing.EVENT_LONGS) {
+                long[] event = new long[TraceRing.EVENT_LONGS];
+                System.arraycopy(copy, offset, event, 0, TraceRing.EVENT_LONGS);
+                events.add(event);
+                threads.add(ring.getThreadName());
+            }
+        }
+
+        Integer[] order = new Integer[events.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> events.get(i)[0]));
+
+        List<String> lines = new ArrayList<>(order.length);
+        long origin = order.length == 0 ? 0L : events.get(order[0])[0];
+        for (int i : order) {
+            long[] event = events.get(i);
+            TraceEvent type = TraceEvent.byOrdinal(event[1]);
+            if (type == null) continue;
+            lines.add(String.format(Locale.ROOT, "+%.3fms [%s] %s %s",
+                    (event[0] - origin) / 1_000_000.0, threads.get(i), type, type.describe(event[2], event[3], event[4])));
+        }
+        return lines;
+    }
+
+    /**
+     * 把当前缓冲区写入 logs/sophisticatedcooking-trace-时间.log（在 IO 线程池中写入），返回文件路径
+     */
+    public static Path dump(String reason) {
+        Path file = FMLPaths.GAMEDIR.get().resolve("logs")
+                .resolve("sophisticatedcooking-trace-" + LocalDateTime.now().format(FILE_TIME) + ".log");
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + reason);
+        lines.addAll(decode());
+
+        Util.ioPool().execute(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+                Files.write(file, lines, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                LOGGER.error("写入追踪文件失败: {}", file, e);
+            }
+        });
+        return file;
+    }
+
+    public static void clear() {
+        for (TraceRing ring : RINGS) {
+            ring.clear();
+        }
+    }
+
+    /**
+     * 慢 tick 触发：本 tick 耗时超过 traceSlowTickMillis 时记录事件并转储（带冷却）
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (!isEnabled()) return;
+
+        if (event.phase == TickEvent.Phase.START) {
+            tickStartNanos = System.nanoTime();
+            return;
+        }
+
+        ticksSinceSlowDump++;
+        int slowTickMillis = Config.getTraceSlowTickMillis();
+        if (slowTickMillis <= 0 || tickStartNanos == 0L) return;
+
+        long tickNanos = System.nanoTime() - tickStartNanos;
+        if (tickNanos >= slowTickMillis * 1_000_000L) {
+            record(TraceEvent.SLOW_TICK, tickNanos, 0L);
+            if (ticksSinceSlowDump >= SLOW_TICK_DUMP_COOLDOWN_TICKS) {
+                ticksSinceSlowDump = 0;
+                Path file = dump(String.format(Locale.ROOT, "slow tick %.2fms", tickNanos / 1_000_000.0));
+                LOGGER.warn("Slow server tick ({} ms), Sophisticated Cooking Bridge trace written to {}",
+                        tickNanos / 1_000_000L, file);
+            }
+        }
+    }
+}
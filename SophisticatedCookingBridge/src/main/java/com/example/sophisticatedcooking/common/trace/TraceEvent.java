@@ -0,0 +1,101 @@
+package com.example.sophisticatedcooking.common.trace;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.Locale;
+
+/**
+ * 追踪事件类型；每个事件固定携带三个 long 参数 a、b、c，由类型决定含义
+ */
+public enum TraceEvent {
+    /**
+     * a = 厨房坐标，b = 探测数 << 32 | 找到数，c = 耗时（纳秒）
+     */
+    DISCOVERY {
+        @Override
+        String describe(long a, long b, long c) {
+            return String.format(Locale.ROOT, "kitchen=%s found=%d probed=%d time=%.1fus",
+                    pos(a), (int) b, (int) (b >>> 32), c / 1000.0);
+        }
+    },
+
+    /**
+     * a = 容器坐标，b = 槽位数
+     */
+    CONTAINER_FOUND {
+        @Override
+        String describe(long a, long b, long c) {
+            return "pos=" + pos(a) + " slots=" + b;
+        }
+    },
+
+    /**
+     * a = 方块实体分类（StorageTypeClassifier.Kind 序号），b = 是否返回了处理器，c = 耗时（纳秒）
+     */
+    PROVIDER {
+        @Override
+        String describe(long a, long b, long c) {
+            return "kind=" + a + " provided=" + (b != 0) + " time=" + c + "ns";
+        }
+    },
+
+    /**
+     * a = 厨房坐标，b = 搜索范围
+     */
+    CACHE_HIT,
+    CACHE_STALE_HIT,
+    CACHE_MISS,
+
+    /**
+     * a = 失效区域最小角，b = 最大角
+     */
+    CACHE_INVALIDATE {
+        @Override
+        String describe(long a, long b, long c) {
+            return "from=" + pos(a) + " to=" + pos(b);
+        }
+    },
+
+    /**
+     * a = 厨房坐标，b = 快照大小（提交时为容器数）
+     */
+    ASYNC_SUBMIT,
+    ASYNC_COMMIT,
+
+    /**
+     * a = 槽位，b = 之前数量，c = 之后数量
+     */
+    SLOT_DELTA {
+        @Override
+        String describe(long a, long b, long c) {
+            return "slot=" + a + " " + b + " -> " + c;
+        }
+    },
+
+    /**
+     * a = 本 tick 耗时（纳秒）
+     */
+    SLOW_TICK {
+        @Override
+        String describe(long a, long b, long c) {
+            return String.format(Locale.ROOT, "tick=%.2fms", a / 1_000_000.0);
+        }
+    };
+
+    private static final TraceEvent[] VALUES = values();
+
+    static TraceEvent byOrdinal(long ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[(int) ordinal] : null;
+    }
+
+    /**
+     * 默认格式：a 为厨房坐标，b 为数值
+     */
+    String describe(long a, long b, long c) {
+        return "kitchen=" + pos(a) + " value=" + b;
+    }
+
+    private static String pos(long packedPos) {
+        return BlockPos.of(packedPos).toShortString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sophisticatedcooking.common.trace;
+
+/**
+ * 单个线程的追踪环形缓冲区
+ * 预先分配 capacity 个定长事件（每个事件 5 个 long：时间、类型、a、b、c），写满后覆盖最旧的事件。
+ * 只有所属线程写入；转储时其他线程读取，写入中的事件可能不完整，这对诊断数据是可以接受的。
+ */
+final class TraceRing {
+    static final int EVENT_LONGS = 5;
+
+    private final String threadName;
+    private final long[] events;
+    private final int capacity;
+    private volatile long written;
+    private int sampleCounter;
+
+    TraceRing(String threadName, int capacity) {
+        this.threadName = threadName;
+        this.capacity = capacity;
+        this.events = new long[capacity * EVENT_LONGS];
+    }
+
+    /**
+     * 每 sampleRate 次调用记录一次
+     */
+    boolean sample(int sampleRate) {
+        if (sampleRate <= 1) return true;
+        if (++sampleCounter >= sampleRate) {
+            sampleCounter = 0;
+            return true;
+        }
+        return false;
+    }
+
+    void write(TraceEvent type, long a, long b, long c) {
+        long index = written;
+        int offset = (int) (index % capacity) * EVENT_LONGS;
+        events[offset] = System.nanoTime();
+        events[offset + 1] = type.ordinal();
+        events[offset + 2] = a;
+        events[offset + 3] = b;
+        events[offset + 4] = c;
+        written = index + 1;
+    }
+
+    String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * 按时间顺序复制仍在缓冲区中的事件
+     */
+    long[] copy() {
+        long end = written;
+        long start = Math.max(0, end - capacity);
+        long[] copy = new long[(int) (end - start) * EVENT_LONGS];
+        for (long index = start; index < end; index++) {
+            System.arraycopy(events, (int) (index % capacity) * EVENT_LONGS, copy, (int) (index - start) * EVENT_LONGS, EVENT_LONGS);
+        }
+        return copy;
+    }
+
+    void clear() {
+        written = 0;
+    }
+}
@@ -1,18 +1,36 @@
 package com.example.sophisticatedcooking.integration;
 
+import com.example.sophisticatedcooking.common.cache.KitchenMembershipCache;
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraftforge.fml.ModList;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Set;
 
 public class CFBApi {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final MethodType IS_PART_OF_KITCHEN_TYPE = MethodType.methodType(boolean.class, Level.class, BlockPos.class);
     private static Object kitchenMultiBlockInstance = null;
     private static boolean apiAvailable = false;
 
+    // 类加载时绑定一次的入口；为 null 表示 API 不可用，热路径上不再反射查找
+    private static final MethodHandle IS_PART_OF_KITCHEN;
+
+    private static final MethodType BUILD_KITCHEN_TYPE = MethodType.methodType(Object.class, Level.class, BlockPos.class);
+    private static final MethodType CHECKED_POSITIONS_TYPE = MethodType.methodType(Set.class, Object.class);
+    // KitchenMultiBlock.buildFromLocation 与其遍历过的坐标；为 null 表示无法得知厨房结构的范围
+    private static MethodHandle buildKitchen = null;
+    private static MethodHandle checkedPositions = null;
+
     static {
         if (ModList.get().isLoaded("cookingforblockheads")) {
             try {
@@ -34,10 +52,24 @@ public class CFBApi {
                 apiAvailable = (kitchenMultiBlockInstance != null);
                 LOGGER.debug("Cooking for Blockheads API loaded successfully via reflection");
             } catch (Exception e) {
+                BridgeMetrics.recordReflectionFailure();
                 LOGGER.error("Failed to load Cooking for Blockheads API via reflection", e);
                 apiAvailable = false;
             }
         }
+
+        IS_PART_OF_KITCHEN = apiAvailable ? bindIsPartOfKitchen(kitchenMultiBlockInstance) : null;
+        if (IS_PART_OF_KITCHEN != null) {
+            bindKitchenExtent();
+        }
+    }
+
+    /**
+     * 在初始化阶段触发绑定，避免第一次厨房查询时才解析 API
+     */
+    public static void init() {
+        LOGGER.debug("Cooking for Blockheads API bound: available={}, isPartOfKitchen={}, kitchenExtent={}",
+                apiAvailable, IS_PART_OF_KITCHEN != null, buildKitchen != null);
     }
 
     public static boolean isApiAvailable() {
@@ -45,22 +77,89 @@ public class CFBApi {
     }
 
     /**
-     * 检查位置是否为有效的厨房（通过反射）
+     * 将 isPartOfKitchen 绑定到实例上，并统一为 (Level, BlockPos) -> boolean
+     */
+    private static MethodHandle bindIsPartOfKitchen(Object instance) {
+        try {
+            Method method = instance.getClass().getMethod("isPartOfKitchen", Level.class, BlockPos.class);
+            return MethodHandles.publicLookup()
+                    .unreflect(method)
+                    .bindTo(instance)
+                    .asType(IS_PART_OF_KITCHEN_TYPE);
+        } catch (NoSuchMethodException e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.warn("Cooking for Blockheads API has no isPartOfKitchen(Level, BlockPos); kitchen checks are disabled");
+        } catch (Exception e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.error("Failed to bind Cooking for Blockheads isPartOfKitchen", e);
+        }
+        return null;
+    }
+
+    /**
+     * 绑定 KitchenMultiBlock.buildFromLocation 与私有的 checkedPos 字段；不存在时缓存退回 kitchenCacheRadius 范围
+     */
+    private static void bindKitchenExtent() {
+        try {
+            Class<?> multiBlockClass = Class.forName("net.blay09.mods.cookingforblockheads.KitchenMultiBlock");
+            buildKitchen = MethodHandles.publicLookup()
+                    .unreflect(multiBlockClass.getMethod("buildFromLocation", Level.class, BlockPos.class))
+                    .asType(BUILD_KITCHEN_TYPE);
+            Field field = multiBlockClass.getDeclaredField("checkedPos");
+            field.setAccessible(true);
+            checkedPositions = MethodHandles.lookup().unreflectGetter(field).asType(CHECKED_POSITIONS_TYPE);
+        } catch (Exception | LinkageError e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.debug("Cooking for Blockheads kitchen extent not available; cached kitchen checks fall back to kitchenCacheRadius", e);
+            buildKitchen = null;
+            checkedPositions = null;
+        }
+    }
+
+    /**
+     * 检查位置是否为有效的厨房；服务端结果由 KitchenMembershipCache 缓存
      */
     public static boolean isValidKitchen(Level level, BlockPos pos) {
-        if (!apiAvailable || level == null || kitchenMultiBlockInstance == null) {
+        if (IS_PART_OF_KITCHEN == null || level == null) {
             return false;
         }
 
+        return KitchenMembershipCache.isPartOfKitchen(level, pos, CFBApi::checkKitchen, CFBApi::getKitchenExtent);
+    }
+
+    /**
+     * 从 pos 出发的厨房多方块结构遍历到的全部坐标（含 pos）的包围盒；无法得知时返回 null
+     * 不是厨房的位置也会得到范围：范围内的改动可能把它连进厨房。
+     */
+    public static BoundingBox getKitchenExtent(Level level, BlockPos pos) {
+        if (buildKitchen == null || level == null) return null;
+
         try {
-            Class<?> kitchenMultiBlockClass = kitchenMultiBlockInstance.getClass();
-            Method isPartOfKitchenMethod = kitchenMultiBlockClass.getMethod(
-                    "isPartOfKitchen", Level.class, BlockPos.class);
+            Object multiBlock = (Object) buildKitchen.invokeExact(level, pos);
+            Set<?> positions = (Set<?>) checkedPositions.invokeExact(multiBlock);
+            BoundingBox bounds = new BoundingBox(pos);
+            for (Object position : positions) {
+                if (position instanceof BlockPos blockPos) {
+                    bounds.encapsulate(blockPos);
+                }
+            }
+            return bounds;
+        } catch (Throwable e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.debug("Failed to read Cooking for Blockheads kitchen extent", e);
+            return null;
+        }
+    }
 
-            Object result = isPartOfKitchenMethod.invoke(kitchenMultiBlockInstance, level, pos);
-            return result instanceof Boolean ? (Boolean) result : false;
-        } catch (Exception e) {
-            LOGGER.error("Error checking kitchen validity via reflection", e);
+    /**
+     * 不经缓存，通过预先绑定的 MethodHandle 调用 CFB 的多方块检查
+     */
+    private static boolean checkKitchen(Level level, BlockPos pos) {
+        try {
+            return (boolean) IS_PART_OF_KITCHEN.invokeExact(level, pos);
+        } catch (Throwable e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.error("Error checking kitchen validity", e);
             return false;
         }
     }
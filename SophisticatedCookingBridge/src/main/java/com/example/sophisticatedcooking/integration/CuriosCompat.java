@@ -0,0 +1,63 @@
+package com.example.sophisticatedcooking.integration;
+
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.items.IItemHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Curios 饰品栏的反射兼容层（Curios 不随附）
+ * 入口 CuriosApi.getCuriosHelper().getEquippedCurios(LivingEntity) 在类加载时绑定一次。
+ */
+public class CuriosCompat {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final MethodType GET_EQUIPPED_CURIOS_TYPE = MethodType.methodType(LazyOptional.class, LivingEntity.class);
+
+    // 为 null 表示 Curios 不可用
+    private static final MethodHandle GET_EQUIPPED_CURIOS;
+
+    static {
+        MethodHandle getEquippedCurios = null;
+        if (ModList.get() != null && ModList.get().isLoaded("curios")) {
+            try {
+                Class<?> curiosApiClass = Class.forName("top.theillusivec4.curios.api.CuriosApi");
+                Object helper = curiosApiClass.getMethod("getCuriosHelper").invoke(null);
+                getEquippedCurios = MethodHandles.publicLookup()
+                        .unreflect(helper.getClass().getMethod("getEquippedCurios", LivingEntity.class))
+                        .bindTo(helper)
+                        .asType(GET_EQUIPPED_CURIOS_TYPE);
+                LOGGER.debug("Curios API bound via reflection");
+            } catch (Exception e) {
+                BridgeMetrics.recordReflectionFailure();
+                LOGGER.debug("Curios API not available; curio slots are not searched for backpacks", e);
+            }
+        }
+        GET_EQUIPPED_CURIOS = getEquippedCurios;
+    }
+
+    public static boolean isAvailable() {
+        return GET_EQUIPPED_CURIOS != null;
+    }
+
+    /**
+     * 实体所有饰品槽位组成的物品处理器；不可用时返回 null
+     */
+    public static IItemHandler getEquippedCurios(LivingEntity entity) {
+        if (GET_EQUIPPED_CURIOS == null) return null;
+
+        try {
+            LazyOptional<?> curios = (LazyOptional<?>) GET_EQUIPPED_CURIOS.invokeExact(entity);
+            return curios.resolve().orElse(null) instanceof IItemHandler handler ? handler : null;
+        } catch (Throwable e) {
+            BridgeMetrics.recordReflectionFailure();
+            return null;
+        }
+    }
+}
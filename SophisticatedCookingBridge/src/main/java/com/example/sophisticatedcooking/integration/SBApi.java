@@ -0,0 +1,109 @@
+package com.example.sophisticatedcooking.integration;
+
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.UUID;
+
+/**
+ * 精妙背包的反射兼容层（背包模组不随附）
+ * 背包物品栈的标签中以 contentsUuid 标识背包内容，内容本身保存在服务端的背包存储中。
+ */
+public class SBApi {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String CONTENTS_UUID_TAG = "contentsUuid";
+    private static Class<?> backpackItemClass = null;
+    private static boolean apiAvailable = false;
+
+    private static final MethodType INVENTORY_HANDLER_TYPE = MethodType.methodType(Object.class, Object.class);
+    // 背包包装器能力与 IStorageWrapper.getInventoryHandler；为 null 表示无法挂上背包内容的变化通知
+    private static Capability<?> backpackWrapperCapability = null;
+    private static MethodHandle inventoryHandler = null;
+
+    static {
+        if (ModList.get().isLoaded("sophisticatedbackpacks")) {
+            try {
+                backpackItemClass = Class.forName("net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackItem");
+                apiAvailable = true;
+                LOGGER.debug("Sophisticated Backpacks API classes found via reflection");
+            } catch (ClassNotFoundException e) {
+                BridgeMetrics.recordReflectionFailure();
+                LOGGER.debug("Sophisticated Backpacks API classes not found via reflection");
+                apiAvailable = false;
+            }
+            if (apiAvailable) {
+                bindBackpackWrapper();
+            }
+        }
+    }
+
+    private static void bindBackpackWrapper() {
+        try {
+            Class<?> capabilityClass = Class.forName("net.p3pp3rf1y.sophisticatedbackpacks.api.CapabilityBackpackWrapper");
+            backpackWrapperCapability = (Capability<?>) capabilityClass.getMethod("getCapabilityInstance").invoke(null);
+            Class<?> wrapperClass = Class.forName("net.p3pp3rf1y.sophisticatedcore.api.IStorageWrapper");
+            inventoryHandler = MethodHandles.publicLookup()
+                    .unreflect(wrapperClass.getMethod("getInventoryHandler"))
+                    .asType(INVENTORY_HANDLER_TYPE);
+        } catch (Exception | LinkageError e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.debug("Sophisticated Backpacks wrapper API not available; carried backpacks are sampled instead", e);
+            backpackWrapperCapability = null;
+            inventoryHandler = null;
+        }
+    }
+
+    public static boolean isApiAvailable() {
+        return apiAvailable;
+    }
+
+    public static boolean isBackpack(ItemStack stack) {
+        return apiAvailable && !stack.isEmpty() && backpackItemClass.isInstance(stack.getItem());
+    }
+
+    /**
+     * 背包内容的 UUID；从未打开过的背包还没有内容，返回 null
+     */
+    public static UUID getContentsUuid(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        return tag != null && tag.hasUUID(CONTENTS_UUID_TAG) ? tag.getUUID(CONTENTS_UUID_TAG) : null;
+    }
+
+    /**
+     * 背包包装器的 InventoryHandler，用于挂上内容变化通知（见 SSApi.addInventoryContentsListener）；不支持时返回 null
+     */
+    public static Object getBackingInventory(ItemStack stack) {
+        if (inventoryHandler == null || !isBackpack(stack)) return null;
+
+        try {
+            Object wrapper = stack.getCapability(backpackWrapperCapability).resolve().orElse(null);
+            return wrapper == null ? null : (Object) inventoryHandler.invokeExact(wrapper);
+        } catch (Throwable t) {
+            BridgeMetrics.recordReflectionFailure();
+            return null;
+        }
+    }
+
+    /**
+     * 从背包物品栈创建物品处理器（会根据标签构建背包包装器，开销较大，调用方应缓存）
+     */
+    public static IItemHandler getItemHandler(ItemStack stack) {
+        try {
+            return stack.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY).resolve().orElse(null);
+        } catch (Exception e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.debug("Failed to get item handler of backpack {}", stack, e);
+            return null;
+        }
+    }
+}
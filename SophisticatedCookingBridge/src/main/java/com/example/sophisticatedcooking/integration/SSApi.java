@@ -1,15 +1,43 @@
 package com.example.sophisticatedcooking.integration;
 
+import com.example.sophisticatedcooking.common.metrics.BridgeMetrics;
+import net.minecraft.core.BlockPos;
 import net.minecraftforge.fml.ModList;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
 
 public class SSApi {
     private static final Logger LOGGER = LogManager.getLogger();
     private static Class<?> storageBlockEntityBaseClass = null;
     private static boolean apiAvailable = false;
+    private static final MethodType ADD_LISTENER_TYPE = MethodType.methodType(void.class, Object.class, IntConsumer.class);
+    // InventoryHandler.addListener(IntConsumer)；为 null 表示不支持变化通知
+    private static MethodHandle addInventoryListener = null;
+    // 已挂上通知的物品栏 → 分发器；每份物品栏只向精妙存储注册一次，跟踪对象增减时只改分发目标
+    private static final Map<Object, ContentsDispatcher> DISPATCHERS = new WeakHashMap<>();
+    // 挂不上通知的方块实体类，之后不再尝试
+    private static final Set<Class<?>> UNHOOKABLE = ConcurrentHashMap.newKeySet();
+
+    private static final MethodType CONTROLLER_POS_TYPE = MethodType.methodType(Optional.class, Object.class);
+    private static final MethodType BACKING_INVENTORY_TYPE = MethodType.methodType(Object.class, Object.class);
+    // 控制器分组用的入口，类加载时绑定一次；为 null 表示对应类或方法不存在
+    private static Class<?> storageClass = null;
+    private static Class<?> linkClass = null;
+    private static Class<?> controllerBlockEntityClass = null;
+    private static MethodHandle storageControllerPos = null;
+    private static MethodHandle linkControllerPos = null;
+    private static MethodHandle backingInventory = null;
 
     static {
         if (ModList.get().isLoaded("sophisticatedstorage")) {
@@ -26,6 +54,50 @@ public class SSApi {
                 LOGGER.error("Error loading Sophisticated Storage API via reflection", e);
                 apiAvailable = false;
             }
+            bindNetworkHandles();
+        }
+    }
+
+    private static void bindNetworkHandles() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            storageClass = Class.forName("net.p3pp3rf1y.sophisticatedstorage.block.StorageBlockEntity");
+            linkClass = Class.forName("net.p3pp3rf1y.sophisticatedstorage.block.StorageLinkBlockEntity");
+            Class<?> wrapperClass = Class.forName("net.p3pp3rf1y.sophisticatedstorage.block.StorageWrapper");
+            controllerBlockEntityClass = Class.forName("net.p3pp3rf1y.sophisticatedstorage.block.ControllerBlockEntity");
+
+            storageControllerPos = lookup.unreflect(storageClass.getMethod("getControllerPos")).asType(CONTROLLER_POS_TYPE);
+            linkControllerPos = lookup.unreflect(linkClass.getMethod("getControllerPos")).asType(CONTROLLER_POS_TYPE);
+            // StorageBlockEntity → StorageWrapper → InventoryHandler
+            MethodHandle getWrapper = lookup.unreflect(storageClass.getMethod("getStorageWrapper"))
+                    .asType(MethodType.methodType(wrapperClass, storageClass));
+            MethodHandle getInventory = lookup.unreflect(wrapperClass.getMethod("getInventoryHandler"))
+                    .asType(MethodType.methodType(Object.class, wrapperClass));
+            backingInventory = MethodHandles.filterReturnValue(getWrapper, getInventory).asType(BACKING_INVENTORY_TYPE);
+            bindInventoryListener(lookup, wrapperClass.getMethod("getInventoryHandler").getReturnType());
+        } catch (Exception | LinkageError e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.debug("Sophisticated Storage controller API not available; handlers are deduplicated by identity only", e);
+            storageClass = null;
+            linkClass = null;
+            controllerBlockEntityClass = null;
+            storageControllerPos = null;
+            linkControllerPos = null;
+            backingInventory = null;
+            addInventoryListener = null;
+        }
+    }
+
+    /**
+     * 绑定 sophisticatedcore InventoryHandler.addListener(IntConsumer)；不存在时所有容器退回低频采样
+     */
+    private static void bindInventoryListener(MethodHandles.Lookup lookup, Class<?> inventoryClass) {
+        try {
+            addInventoryListener = lookup.unreflect(inventoryClass.getMethod("addListener", IntConsumer.class)).asType(ADD_LISTENER_TYPE);
+        } catch (Exception | LinkageError e) {
+            BridgeMetrics.recordReflectionFailure();
+            LOGGER.debug("Sophisticated Storage inventory has no addListener(IntConsumer); containers are sampled instead", e);
+            addInventoryListener = null;
         }
     }
 
@@ -33,6 +105,146 @@ public class SSApi {
         return apiAvailable;
     }
 
+    /**
+     * 在容器的 StorageWrapper → InventoryHandler 上注册槽位变化监听
+     * 返回挂上的物品栏对象，取消时原样传给 removeContentsListener；不支持时返回 null，同一方块实体类之后不再尝试。
+     * 精妙存储更换升级时会清空物品栏的全部监听并使物品能力失效，跟踪方随之取消并在下一次发现时重新注册。
+     * 只在服务端主线程调用。
+     */
+    public static Object addContentsListener(Object blockEntity, IntConsumer listener) {
+        if (addInventoryListener == null || blockEntity == null || UNHOOKABLE.contains(blockEntity.getClass())) {
+            return null;
+        }
+
+        Object inventory = getBackingInventory(blockEntity);
+        if (inventory == null || !addInventoryContentsListener(inventory, listener)) {
+            UNHOOKABLE.add(blockEntity.getClass());
+            return null;
+        }
+        return inventory;
+    }
+
+    /**
+     * 直接在 sophisticatedcore 的 InventoryHandler 上注册槽位变化监听（精妙背包的物品栏也是这个类）
+     * 失败或不支持时返回 false。只在服务端主线程调用。
+     */
+    public static boolean addInventoryContentsListener(Object inventory, IntConsumer listener) {
+        if (addInventoryListener == null || inventory == null) return false;
+
+        ContentsDispatcher dispatcher = DISPATCHERS.get(inventory);
+        if (dispatcher == null) {
+            dispatcher = new ContentsDispatcher();
+            try {
+                addInventoryListener.invokeExact(inventory, (IntConsumer) dispatcher);
+            } catch (Throwable t) {
+                BridgeMetrics.recordReflectionFailure();
+                LOGGER.debug("Failed to hook inventory change notifications for {}", inventory.getClass().getName(), t);
+                return false;
+            }
+            DISPATCHERS.put(inventory, dispatcher);
+        }
+        dispatcher.add(listener);
+        return true;
+    }
+
+    /**
+     * 取消 addContentsListener / addInventoryContentsListener 注册的监听
+     * 物品栏没有移除监听的方法：最后一个监听取消后分发器不再转发，并从表中移除，
+     * 这样在监听被清空（更换升级）之后重新注册时会挂上新的分发器。
+     */
+    public static void removeContentsListener(Object inventory, IntConsumer listener) {
+        ContentsDispatcher dispatcher = DISPATCHERS.get(inventory);
+        if (dispatcher != null && dispatcher.remove(listener)) {
+            DISPATCHERS.remove(inventory);
+        }
+    }
+
+    /**
+     * 是否为存储控制器；控制器的物品处理器覆盖所有连接到它的容器
+     */
+    public static boolean isControllerBlockEntity(Object blockEntity) {
+        return controllerBlockEntityClass != null && controllerBlockEntityClass.isInstance(blockEntity);
+    }
+
+    /**
+     * 是否为存储连接器；连接器对外暴露的是控制器的物品处理器
+     */
+    public static boolean isLinkBlockEntity(Object blockEntity) {
+        return linkClass != null && linkClass.isInstance(blockEntity);
+    }
+
+    /**
+     * 容器或连接器所连接的控制器坐标；未连接或不支持时返回 null
+     */
+    public static BlockPos getControllerPos(Object blockEntity) {
+        if (storageClass == null || blockEntity == null) return null;
+
+        MethodHandle handle;
+        if (storageClass.isInstance(blockEntity)) {
+            handle = storageControllerPos;
+        } else if (linkClass.isInstance(blockEntity)) {
+            handle = linkControllerPos;
+        } else {
+            return null;
+        }
+
+        try {
+            Optional<?> pos = (Optional<?>) handle.invokeExact(blockEntity);
+            return pos.orElse(null) instanceof BlockPos blockPos ? blockPos : null;
+        } catch (Throwable t) {
+            BridgeMetrics.recordReflectionFailure();
+            return null;
+        }
+    }
+
+    /**
+     * 容器真正的物品栏对象（StorageWrapper 的 InventoryHandler）；用于识别不同处理器背后的同一份库存
+     */
+    public static Object getBackingInventory(Object blockEntity) {
+        if (backingInventory == null || !storageClass.isInstance(blockEntity)) return null;
+        try {
+            return (Object) backingInventory.invokeExact(blockEntity);
+        } catch (Throwable t) {
+            BridgeMetrics.recordReflectionFailure();
+            return null;
+        }
+    }
+
+    /**
+     * 挂在一份物品栏上的唯一监听，把槽位变化转发给当前的跟踪对象
+     */
+    private static final class ContentsDispatcher implements IntConsumer {
+        private IntConsumer[] targets = new IntConsumer[0];
+
+        @Override
+        public void accept(int slot) {
+            for (IntConsumer target : targets) {
+                target.accept(slot);
+            }
+        }
+
+        void add(IntConsumer target) {
+            targets = Arrays.copyOf(targets, targets.length + 1);
+            targets[targets.length - 1] = target;
+        }
+
+        /**
+         * 移除目标；没有剩余目标时返回 true
+         */
+        boolean remove(IntConsumer target) {
+            for (int i = 0; i < targets.length; i++) {
+                if (targets[i] == target) {
+                    IntConsumer[] remaining = new IntConsumer[targets.length - 1];
+                    System.arraycopy(targets, 0, remaining, 0, i);
+                    System.arraycopy(targets, i + 1, remaining, i, remaining.length - i);
+                    targets = remaining;
+                    break;
+                }
+            }
+            return targets.length == 0;
+        }
+    }
+
     public static boolean isStorageBlockEntity(Object blockEntity) {
         if (!apiAvailable || storageBlockEntityBaseClass == null) {
             return false;
@@ -2,10 +2,23 @@ package com.example.sophisticatedcooking.integration;
 
 import com.example.sophisticatedcooking.SophisticatedCookingBridge;
 import com.example.sophisticatedcooking.common.Config;
+import com.example.sophisticatedcooking.common.cache.KitchenContainerCache;
+import com.example.sophisticatedcooking.common.cache.PlayerBackpackCache;
+import com.example.sophisticatedcooking.common.discovery.ContainerDiscovery;
+import com.example.sophisticatedcooking.common.discovery.DiscoveryMode;
+import com.example.sophisticatedcooking.common.inventory.AggregatedItemHandler;
+import com.example.sophisticatedcooking.common.inventory.ExtractionPlanner;
+import com.example.sophisticatedcooking.common.inventory.ItemCountAggregator;
+import com.example.sophisticatedcooking.common.recipe.RecipeAvailability;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.items.CapabilityItemHandler;
@@ -13,7 +26,7 @@ import net.minecraftforge.items.IItemHandler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 public class SophisticatedStorageInventoryProvider {
@@ -21,39 +34,11 @@ public class SophisticatedStorageInventoryProvider {
 
     /**
      * 检查是否为精妙存储的方块实体
-     * 目前基于注册ID检测，这是最可靠的方式。
-     * 如果检测不准确，请使用下方的 debugAllStorageBlockEntities 方法找出真实类名后修改此处。
+     * 基于注册ID检测，每种方块实体类型只判断一次（见 StorageTypeClassifier）。
+     * 如果检测不准确，请使用下方的 debugAllStorageBlockEntities 方法找出真实注册ID。
      */
     public static boolean isSophisticatedStorageBlockEntity(BlockEntity blockEntity) {
-        if (blockEntity == null) return false;
-
-        // 方案A：使用注册ID检测（推荐）
-        try {
-            // 关键修复：Forge 1.18.2 使用 BLOCK_ENTITIES，不是 BLOCK_ENTITY_TYPES
-            ResourceLocation typeId = ForgeRegistries.BLOCK_ENTITIES.getKey(blockEntity.getType());
-            // 如果注册ID的命名空间是 "sophisticatedstorage"，则认为是其容器
-            if (typeId != null && "sophisticatedstorage".equals(typeId.getNamespace())) {
-                if (Config.isDebugLoggingEnabled()) {
-                    LOGGER.debug("[桥接] 通过注册ID识别到精妙存储容器: {}", typeId);
-                }
-                return true;
-            }
-        } catch (Exception e) {
-            LOGGER.error("检查注册ID时出错", e);
-        }
-
-        // 方案B：类名检测（备用，根据你的实际类名修改）
-        String className = blockEntity.getClass().getName();
-        // 示例：如果类名以 net.p3pp3rf1y.sophisticatedstorage. 开头
-        // 请根据 debugAllStorageBlockEntities 输出的真实类名修改下面的判断条件
-        boolean isByClassName = className.startsWith("net.p3pp3rf1y.sophisticatedstorage.");
-        if (isByClassName && Config.isDebugLoggingEnabled()) {
-            LOGGER.debug("[桥接] 通过类名识别到可能的目标: {}", className);
-        }
-
-        // 先禁用类名检测，优先使用注册ID。如果注册ID无效，请启用下面这行：
-        // return isByClassName;
-        return false;
+        return StorageTypeClassifier.isStorage(blockEntity);
     }
 
     /**
@@ -79,52 +64,62 @@ public class SophisticatedStorageInventoryProvider {
 
     /**
      * 获取范围内所有精妙存储容器的物品处理器
+     * 结果经 KitchenContainerCache 缓存，返回的列表不可修改
      */
     public static List<IItemHandler> getNearbyItemHandlers(Level level, BlockPos centerPos, int range) {
-        List<IItemHandler> handlers = new ArrayList<>();
-
-        if (level == null) return handlers;
-
-        int maxContainers = Config.getMaxContainersPerKitchen();
-        int containersFound = 0;
+        return KitchenContainerCache.getNearbyItemHandlers(level, centerPos, range);
+    }
 
-        // 搜索范围内的方块实体
-        for (int x = -range; x <= range; x++) {
-            for (int y = -range; y <= range; y++) {
-                for (int z = -range; z <= range; z++) {
-                    if (containersFound >= maxContainers) break;
+    /**
+     * 获取范围内所有容器的聚合库存视图，支持 O(1) 数量查询和按物品提取
+     */
+    public static AggregatedItemHandler getKitchenInventory(Level level, BlockPos centerPos, int range) {
+        return KitchenContainerCache.getKitchenInventory(level, centerPos, range);
+    }
 
-                    BlockPos pos = centerPos.offset(x, y, z);
-                    BlockEntity blockEntity = level.getBlockEntity(pos);
+    /**
+     * 同上，并加入 player 携带的精妙背包（物品栏与 Curios 饰品栏）；背包功能关闭时与不带玩家的版本相同
+     */
+    public static AggregatedItemHandler getKitchenInventory(Level level, BlockPos centerPos, int range, Player player) {
+        return PlayerBackpackCache.getKitchenInventory(level, centerPos, range, player);
+    }
 
-                    if (blockEntity != null && isSophisticatedStorageBlockEntity(blockEntity)) {
-                        IItemHandler handler = getItemHandler(blockEntity);
-                        if (handler != null) {
-                            handlers.add(handler);
-                            containersFound++;
+    /**
+     * 把范围内容器的物品数量汇总到 aggregator 并返回它（物品 + NBT 驻留为整数 ID，计数不装箱）
+     * aggregator 由调用方长期持有、重复传入：槽位内容没变时不重新计算 NBT 哈希；
+     * 分配情况见 ItemCountAggregator，此外每次调用查询容器缓存时会创建一个查询键。只在服务端主线程调用
+     */
+    public static ItemCountAggregator aggregateItemCounts(Level level, BlockPos centerPos, int range, ItemCountAggregator aggregator) {
+        return aggregator.aggregate(getNearbyItemHandlers(level, centerPos, range));
+    }
 
-                            if (Config.isDebugLoggingEnabled()) {
-                                LOGGER.debug("发现精妙存储容器，位置: {}，槽位: {}", pos, handler.getSlots());
-                            }
-                        }
-                    }
-                }
-                if (containersFound >= maxContainers) break;
-            }
-            if (containersFound >= maxContainers) break;
-        }
+    /**
+     * 一次性从范围内的容器中提取整张材料表 times 份（批量制作）
+     * 先确认全部材料充足再提取；不足时返回 null 且不修改任何容器。
+     */
+    public static List<ItemStack> extractIngredients(Level level, BlockPos centerPos, int range, List<Ingredient> ingredients, int times) {
+        return ExtractionPlanner.extractAll(getKitchenInventory(level, centerPos, range), ingredients, times);
+    }
 
-        if (Config.isDebugLoggingEnabled()) {
-            LOGGER.debug("在 {} 格范围内找到 {} 个精妙存储容器", range, containersFound);
-        }
+    /**
+     * 范围内容器可以制作的食物配方位集，序号对应 RecipeAvailability.getCatalog(level)
+     */
+    public static BitSet getCraftableRecipes(Level level, BlockPos centerPos, int range) {
+        return RecipeAvailability.getCraftable(level, centerPos, range);
+    }
 
-        return handlers;
+    /**
+     * 使用指定的发现方式获取范围内的物品处理器（不经过缓存），便于对比不同实现的结果
+     */
+    public static List<IItemHandler> getNearbyItemHandlers(Level level, BlockPos centerPos, int range, DiscoveryMode mode) {
+        return ContainerDiscovery.discover(level, centerPos, range, Config.getMaxContainersPerKitchen(), mode);
     }
 
     /**
      * 调试方法：扫描并打印范围内所有方块实体的关键信息
      * 调用方式：在游戏内找到一个合适的地方获取 Level 和坐标后调用
      * 例如：SophisticatedStorageInventoryProvider.debugAllStorageBlockEntities(world, playerPosition, 10);
+     * 每个方块实体输出一行，只遍历已加载的区块；大范围请使用 /sophisticatedcooking export 导出到文件。
      */
     public static void debugAllStorageBlockEntities(Level level, BlockPos centerPos, int range) {
         if (level == null) {
@@ -136,34 +131,36 @@ public class SophisticatedStorageInventoryProvider {
         int totalCount = 0;
         int storageCount = 0;
 
-        for (int x = -range; x <= range; x++) {
-            for (int y = -range; y <= range; y++) {
-                for (int z = -range; z <= range; z++) {
-                    BlockPos pos = centerPos.offset(x, y, z);
-                    BlockEntity blockEntity = level.getBlockEntity(pos);
-
-                    if (blockEntity != null) {
-                        totalCount++;
-                        String className = blockEntity.getClass().getName();
-                        // 关键修复：Forge 1.18.2 使用 BLOCK_ENTITIES
-                        ResourceLocation typeId = ForgeRegistries.BLOCK_ENTITIES.getKey(blockEntity.getType());
-
-                        // 检查是否为精妙存储容器
-                        boolean isStorage = false;
-                        if (typeId != null && "sophisticatedstorage".equals(typeId.getNamespace())) {
-                            isStorage = true;
-                            storageCount++;
-                        }
-
-                        LOGGER.info("方块实体 #{}{}", totalCount, isStorage ? " [精妙存储]" : "");
-                        LOGGER.info("  位置: {}", pos);
-                        LOGGER.info("  完整类名: {}", className);
-                        LOGGER.info("  注册ID: {}", typeId);
-
-                        LazyOptional<IItemHandler> cap = blockEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY);
-                        LOGGER.info("  是否有物品能力: {}", cap.isPresent());
-                        LOGGER.info("  ---");
+        int minChunkX = SectionPos.blockToSectionCoord(centerPos.getX() - range);
+        int maxChunkX = SectionPos.blockToSectionCoord(centerPos.getX() + range);
+        int minChunkZ = SectionPos.blockToSectionCoord(centerPos.getZ() - range);
+        int maxChunkZ = SectionPos.blockToSectionCoord(centerPos.getZ() + range);
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk == null) continue;
+
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    BlockPos pos = blockEntity.getBlockPos();
+                    if (Math.abs(pos.getX() - centerPos.getX()) > range || Math.abs(pos.getY() - centerPos.getY()) > range
+                            || Math.abs(pos.getZ() - centerPos.getZ()) > range) {
+                        continue;
                     }
+
+                    totalCount++;
+                    // 关键修复：Forge 1.18.2 使用 BLOCK_ENTITIES
+                    ResourceLocation typeId = ForgeRegistries.BLOCK_ENTITIES.getKey(blockEntity.getType());
+
+                    // 检查是否为精妙存储容器
+                    boolean isStorage = typeId != null && "sophisticatedstorage".equals(typeId.getNamespace());
+                    if (isStorage) {
+                        storageCount++;
+                    }
+
+                    LazyOptional<IItemHandler> cap = blockEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY);
+                    LOGGER.info("#{}{} {} {} {} 物品能力={}", totalCount, isStorage ? " [精妙存储]" : "",
+                            pos.toShortString(), typeId, blockEntity.getClass().getName(), cap.isPresent());
                 }
             }
         }
@@ -0,0 +1,101 @@
+package com.example.sophisticatedcooking.integration;
+
+import com.example.sophisticatedcooking.common.Config;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 方块实体类型分类器：精妙存储 / 精妙背包 / 其他
+ * 每个 BlockEntityType 只按注册 ID 判断一次，结果保存在写时复制的 IdentityHashMap 中，读路径无锁、不分配对象。
+ * 测试源集的替身容器不在精妙存储/背包命名空间下，通过测试钩子 register 显式归类。
+ */
+public final class StorageTypeClassifier {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public enum Kind {
+        STORAGE,
+        BACKPACK,
+        NONE
+    }
+
+    private static volatile Map<BlockEntityType<?>, Kind> kinds = new IdentityHashMap<>();
+    // 显式归类的类型
+    private static final Map<BlockEntityType<?>, Kind> REGISTERED = new IdentityHashMap<>();
+
+    private StorageTypeClassifier() {
+    }
+
+    public static Kind classify(BlockEntity blockEntity) {
+        return blockEntity == null ? Kind.NONE : classify(blockEntity.getType());
+    }
+
+    public static Kind classify(BlockEntityType<?> type) {
+        Kind kind = kinds.get(type);
+        return kind != null ? kind : computeKind(type);
+    }
+
+    /**
+     * 测试钩子：显式指定类型的归类，优先于按注册 ID 的判断
+     * 只供同包的测试源集登记替身类型（gametest 的 LoadTestStorageTypes、jmh 的 BenchmarkStorageTypes），生产代码不调用。
+     * 应在方块实体出现在世界中之前（例如 FMLCommonSetupEvent）调用；已被索引的容器不会重新判断。
+     */
+    static synchronized void register(BlockEntityType<?> type, Kind kind) {
+        REGISTERED.put(type, kind);
+
+        Map<BlockEntityType<?>, Kind> updated = new IdentityHashMap<>(kinds);
+        updated.put(type, kind);
+        kinds = updated;
+    }
+
+    public static boolean isStorage(BlockEntity blockEntity) {
+        return classify(blockEntity) == Kind.STORAGE;
+    }
+
+    public static boolean isBackpack(BlockEntity blockEntity) {
+        return classify(blockEntity) == Kind.BACKPACK;
+    }
+
+    private static synchronized Kind computeKind(BlockEntityType<?> type) {
+        Kind kind = kinds.get(type);
+        if (kind != null) {
+            return kind;
+        }
+
+        kind = REGISTERED.get(type);
+        if (kind != null) {
+            Map<BlockEntityType<?>, Kind> updated = new IdentityHashMap<>(kinds);
+            updated.put(type, kind);
+            kinds = updated;
+            return kind;
+        }
+
+        // 关键修复：Forge 1.18.2 使用 BLOCK_ENTITIES，不是 BLOCK_ENTITY_TYPES
+        ResourceLocation typeId = ForgeRegistries.BLOCK_ENTITIES.getKey(type);
+        if (typeId == null) {
+            // 尚未注册的类型不缓存，下次再判断
+            return Kind.NONE;
+        }
+
+        kind = switch (typeId.getNamespace()) {
+            case "sophisticatedstorage" -> Kind.STORAGE;
+            case "sophisticatedbackpacks" -> Kind.BACKPACK;
+            default -> Kind.NONE;
+        };
+
+        Map<BlockEntityType<?>, Kind> updated = new IdentityHashMap<>(kinds);
+        updated.put(type, kind);
+        kinds = updated;
+
+        if (kind != Kind.NONE && Config.isDebugLoggingEnabled()) {
+            LOGGER.debug("[桥接] 方块实体类型 {} 归类为 {}", typeId, kind);
+        }
+        return kind;
+    }
+}